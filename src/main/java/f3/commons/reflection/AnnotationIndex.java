@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2010-2018 fork3
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software
+ * is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES 
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE 
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR 
+ * IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package f3.commons.reflection;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Registry of annotation types with compact integer ids and cached annotation masks of classes, fields and methods.
+ * Ids are assigned on registration and never change, so masks stay valid for lifetime of context.
+ * Only registered annotation types are present in masks.
+ * Registered types are held strongly for lifetime of context, so only types visible from context class loader 
+ * (its own or parents types) can be registered. Annotations of redeployable class loaders should be registered in own context.
+ * Masks are bound to index, which created them, and methods taking mask reject masks of other indexes.
+ * @author n3k0nation
+ *
+ */
+public final class AnnotationIndex {
+	private final ReflectionContext context;
+	/** owner of masks of this index. masks are cached on classes, so they do not refer index and its context */
+	private final Object maskOwner = new Object();
+	private volatile Map<Class<? extends Annotation>, Integer> ids = new HashMap<>();
+	
+	AnnotationIndex(ReflectionContext context) {
+		this.context = context;
+	}
+	
+	/** return id of annotation type, registering it if needed. 
+	 * throw exception if annotation type is not visible from context class loader */
+	public int register(Class<? extends Annotation> annotationClass) throws IllegalArgumentException {
+		final Integer id = ids.get(annotationClass);
+		if(id != null) {
+			return id;
+		}
+		
+		if(!ReflectionContext.isVisible(annotationClass, context.getClassLoader())) {
+			throw new IllegalArgumentException("Annotation " + annotationClass.getName() 
+					+ " is not visible from context class loader, register it in context of own class loader");
+		}
+		
+		synchronized(this) {
+			final Integer registered = ids.get(annotationClass);
+			if(registered != null) {
+				return registered;
+			}
+			
+			final Map<Class<? extends Annotation>, Integer> map = new HashMap<>(ids);
+			final int newId = map.size();
+			map.put(annotationClass, newId);
+			ids = map;
+			return newId;
+		}
+	}
+	
+	/** return id of annotation type. if annotation type is not registered return -1 */
+	public int getId(Class<? extends Annotation> annotationClass) {
+		final Integer id = ids.get(annotationClass);
+		return id == null ? -1 : id;
+	}
+	
+	/** return count of registered annotation types */
+	public int size() {
+		return ids.size();
+	}
+	
+	/** return mask of specified annotation types, registering them if needed */
+	@SafeVarargs
+	public final AnnotationMask getTypesMask(Class<? extends Annotation>... annotationClasses) {
+		final int[] array = new int[annotationClasses.length];
+		for(int i = 0; i < annotationClasses.length; i++) {
+			array[i] = register(annotationClasses[i]);
+		}
+		return AnnotationMask.of(maskOwner, array, array.length);
+	}
+	
+	/** return mask of class annotations, including inherited */
+	public AnnotationMask getMask(Class<?> clazz) {
+		return context.getClassCache(clazz).getAnnotationMasks(this).classMask;
+	}
+	
+	public AnnotationMask getMask(Field field) {
+		final AnnotationMask mask = context.getClassCache(field.getDeclaringClass()).getAnnotationMasks(this).fieldMasks.get(field);
+		return mask == null ? AnnotationMask.EMPTY : mask;
+	}
+	
+	public AnnotationMask getMask(Method method) {
+		final AnnotationMask mask = context.getClassCache(method.getDeclaringClass()).getAnnotationMasks(this).methodMasks.get(method);
+		return mask == null ? AnnotationMask.EMPTY : mask;
+	}
+	
+	/** add declared fields of class annotated by any annotation of mask */
+	public void getAnnotatedFields(Class<?> clazz, AnnotationMask mask, List<Field> out) throws IllegalArgumentException {
+		checkMask(mask);
+		final Masks masks = context.getClassCache(clazz).getAnnotationMasks(this);
+		for(int i = 0; i < masks.fields.length; i++) {
+			if(masks.fieldMaskArray[i].intersects(mask)) {
+				out.add(masks.fields[i]);
+			}
+		}
+	}
+	
+	/** add declared methods of class annotated by any annotation of mask */
+	public void getAnnotatedMethods(Class<?> clazz, AnnotationMask mask, List<Method> out) throws IllegalArgumentException {
+		checkMask(mask);
+		final Masks masks = context.getClassCache(clazz).getAnnotationMasks(this);
+		for(int i = 0; i < masks.methods.length; i++) {
+			if(masks.methodMaskArray[i].intersects(mask)) {
+				out.add(masks.methods[i]);
+			}
+		}
+	}
+	
+	/** return true if field annotated by any annotation of mask */
+	public boolean isAnyAnnotationPresent(Field field, AnnotationMask mask) throws IllegalArgumentException {
+		checkMask(mask);
+		return getMask(field).intersects(mask);
+	}
+	
+	/** return true if method annotated by any annotation of mask */
+	public boolean isAnyAnnotationPresent(Method method, AnnotationMask mask) throws IllegalArgumentException {
+		checkMask(mask);
+		return getMask(method).intersects(mask);
+	}
+	
+	private void checkMask(AnnotationMask mask) throws IllegalArgumentException {
+		if(!mask.isOwnedBy(maskOwner)) {
+			throw new IllegalArgumentException("Annotation mask is created by other annotation index");
+		}
+	}
+	
+	AnnotationMask getMask(Annotation[] annotations) {
+		final Map<Class<? extends Annotation>, Integer> ids = this.ids;
+		final int[] array = new int[annotations.length];
+		int count = 0;
+		for(int i = 0; i < annotations.length; i++) {
+			final Integer id = ids.get(annotations[i].annotationType());
+			if(id != null) {
+				array[count++] = id;
+			}
+		}
+		return AnnotationMask.of(maskOwner, array, count);
+	}
+	
+	/** annotation masks of class and declared members, computed for specified count of registered types */
+	static final class Masks {
+		final int size;
+		final AnnotationMask classMask;
+		final Field[] fields;
+		final AnnotationMask[] fieldMaskArray;
+		final Map<Field, AnnotationMask> fieldMasks;
+		final Method[] methods;
+		final AnnotationMask[] methodMaskArray;
+		final Map<Method, AnnotationMask> methodMasks;
+		
+		Masks(AnnotationIndex index, Class<?> clazz) {
+			size = index.size();
+			classMask = index.getMask(clazz.getAnnotations());
+			
+			fields = clazz.getDeclaredFields();
+			fieldMaskArray = new AnnotationMask[fields.length];
+			fieldMasks = new HashMap<>(fields.length * 2);
+			for(int i = 0; i < fields.length; i++) {
+				fieldMaskArray[i] = index.getMask(fields[i].getDeclaredAnnotations());
+				fieldMasks.put(fields[i], fieldMaskArray[i]);
+			}
+			
+			methods = clazz.getDeclaredMethods();
+			methodMaskArray = new AnnotationMask[methods.length];
+			methodMasks = new HashMap<>(methods.length * 2);
+			for(int i = 0; i < methods.length; i++) {
+				methodMaskArray[i] = index.getMask(methods[i].getDeclaredAnnotations());
+				methodMasks.put(methods[i], methodMaskArray[i]);
+			}
+		}
+	}
+}
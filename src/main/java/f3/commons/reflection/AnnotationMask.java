@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2010-2018 fork3
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software
+ * is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES 
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE 
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR 
+ * IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package f3.commons.reflection;
+
+import java.util.Arrays;
+
+/**
+ * Immutable bitset of annotation types, indexed by ids of {@link AnnotationIndex}.
+ * Masks of different length are compared as if missing words are zero.
+ * Ids are meaningful only in index, which assigned them, so masks of different indexes are not compatible: 
+ * combining them throws {@link IllegalArgumentException}. Empty mask is compatible with any index.
+ * @author n3k0nation
+ *
+ */
+public final class AnnotationMask {
+	static final AnnotationMask EMPTY = new AnnotationMask(null, new long[0]);
+	
+	/** token of index, which assigned ids. null for empty mask */
+	private final Object owner;
+	private final long[] words;
+	
+	AnnotationMask(Object owner, long[] words) {
+		this.owner = owner;
+		this.words = words;
+	}
+	
+	static AnnotationMask of(Object owner, int[] ids, int count) {
+		if(count == 0) {
+			return EMPTY;
+		}
+		
+		int max = 0;
+		for(int i = 0; i < count; i++) {
+			max = Math.max(max, ids[i]);
+		}
+		
+		final long[] words = new long[(max >>> 6) + 1];
+		for(int i = 0; i < count; i++) {
+			final int id = ids[i];
+			words[id >>> 6] |= 1L << id;
+		}
+		return new AnnotationMask(owner, words);
+	}
+	
+	/** return true if mask is empty or ids of mask are assigned by index with specified token */
+	boolean isOwnedBy(Object owner) {
+		return this.owner == null || this.owner == owner;
+	}
+	
+	/** return true if annotation type with specified id is in mask */
+	public boolean has(int id) {
+		final int index = id >>> 6;
+		return id >= 0 && index < words.length && (words[index] & (1L << id)) != 0;
+	}
+	
+	/** return true if masks have at least one common annotation type */
+	public boolean intersects(AnnotationMask mask) throws IllegalArgumentException {
+		checkOwner(mask);
+		final long[] other = mask.words;
+		final int length = Math.min(words.length, other.length);
+		for(int i = 0; i < length; i++) {
+			if((words[i] & other[i]) != 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/** return true if all annotation types of specified mask are in this mask */
+	public boolean containsAll(AnnotationMask mask) throws IllegalArgumentException {
+		checkOwner(mask);
+		final long[] other = mask.words;
+		for(int i = 0; i < other.length; i++) {
+			final long word = i < words.length ? words[i] : 0L;
+			if((word & other[i]) != other[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	public boolean isEmpty() {
+		for(int i = 0; i < words.length; i++) {
+			if(words[i] != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	public AnnotationMask or(AnnotationMask mask) throws IllegalArgumentException {
+		checkOwner(mask);
+		final long[] other = mask.words;
+		final long[] result = Arrays.copyOf(words, Math.max(words.length, other.length));
+		for(int i = 0; i < other.length; i++) {
+			result[i] |= other[i];
+		}
+		return new AnnotationMask(owner != null ? owner : mask.owner, result);
+	}
+	
+	private void checkOwner(AnnotationMask mask) throws IllegalArgumentException {
+		if(owner != null && !mask.isOwnedBy(owner)) {
+			throw new IllegalArgumentException("Annotation masks are from different annotation indexes");
+		}
+	}
+	
+	@Override
+	public boolean equals(Object obj) {
+		if(this == obj) {
+			return true;
+		} else if(!(obj instanceof AnnotationMask)) {
+			return false;
+		}
+		
+		final AnnotationMask mask = (AnnotationMask) obj;
+		if(owner != null && !mask.isOwnedBy(owner)) {
+			return false;
+		}
+		return containsAll(mask) && mask.containsAll(this);
+	}
+	
+	@Override
+	public int hashCode() {
+		int length = words.length;
+		while(length > 0 && words[length - 1] == 0) {
+			length--;
+		}
+		return Arrays.hashCode(Arrays.copyOf(words, length));
+	}
+	
+	@Override
+	public String toString() {
+		final StringBuilder sb = new StringBuilder("AnnotationMask[");
+		boolean first = true;
+		for(int id = 0; id < words.length << 6; id++) {
+			if(has(id)) {
+				if(!first) {
+					sb.append(", ");
+				}
+				sb.append(id);
+				first = false;
+			}
+		}
+		return sb.append(']').toString();
+	}
+}
@@ -59,6 +59,39 @@ public class AnnotationUtils {
 		return list;
 	}
 	
+	/** return mask of specified annotation types from default context annotation index. types are registered 
+	 * for lifetime of application, so annotations of redeployable class loaders are rejected, 
+	 * use {@link ReflectionContext#getAnnotationIndex()} of own context for them */
+	@SafeVarargs
+	public static AnnotationMask getTypesMask(Class<? extends Annotation>... annotationClasses) {
+		return ReflectionContext.getDefault().getAnnotationIndex().getTypesMask(annotationClasses);
+	}
+	
+	/** return cached mask of registered annotations of class, including inherited */
+	public static AnnotationMask getMask(Class<?> clazz) {
+		return ReflectionContext.getDefault().getAnnotationIndex().getMask(clazz);
+	}
+	
+	/** return cached mask of registered annotations of field */
+	public static AnnotationMask getMask(Field field) {
+		return ReflectionContext.getDefault().getAnnotationIndex().getMask(field);
+	}
+	
+	/** return cached mask of registered annotations of method */
+	public static AnnotationMask getMask(Method method) {
+		return ReflectionContext.getDefault().getAnnotationIndex().getMask(method);
+	}
+	
+	/** return true if field annotated by any annotation of mask */
+	public static boolean isAnyAnnotationPresent(Field field, AnnotationMask mask) throws IllegalArgumentException {
+		return ReflectionContext.getDefault().getAnnotationIndex().isAnyAnnotationPresent(field, mask);
+	}
+	
+	/** return true if method annotated by any annotation of mask */
+	public static boolean isAnyAnnotationPresent(Method method, AnnotationMask mask) throws IllegalArgumentException {
+		return ReflectionContext.getDefault().getAnnotationIndex().isAnyAnnotationPresent(method, mask);
+	}
+	
 	private static <T extends Annotation> void collectAnnotationsAnnotatedBy(Annotation[] anns, Class<T> annotation, List<Annotation> list) {
 		for(int j = 0; j < anns.length; j++) {
 			final Annotation ann = anns[j];
@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2010-2018 fork3
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software
+ * is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES 
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE 
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR 
+ * IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package f3.commons.reflection;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import f3.commons.reflection.exception.ReflectiveOperationUncheckedException;
+
+/**
+ * Cached reflection data of class, owned by {@link ReflectionContext}.
+ * Cache is stored on class itself, so it may refer only to types visible from class loader of class. 
+ * Data keyed by types of other class loaders is stored in cache of class, which sees all of them.
+ * Values are computed lazily, concurrent computation is allowed and any result is published.
+ * @author n3k0nation
+ *
+ */
+final class ClassCache {
+	private final Class<?> clazz;
+	private volatile RecordInfo<?> record;
+	private volatile List<Class<?>> permittedChilds;
+	private volatile AnnotationIndex.Masks annotationMasks;
+	/** layouts by class and annotation, stored in cache of class which sees both */
+	private final ConcurrentHashMap<List<Class<?>>, StructLayout<?>> layouts = new ConcurrentHashMap<>();
+	private volatile Map<TypeVariable<?>, Type> typeBindings;
+	private final ConcurrentHashMap<Field, Type> fieldTypes = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<Method, Type> returnTypes = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<Method, Type[]> parameterTypes = new ConcurrentHashMap<>();
+	/** invokers or resolution failures by call site, stored in cache of class which sees target and argument types */
+	private final ConcurrentHashMap<MethodSignature, Object> invokers = new ConcurrentHashMap<>();
+	
+	ClassCache(Class<?> clazz) {
+		this.clazz = clazz;
+	}
+	
+	RecordInfo<?> getRecord() {
+		RecordInfo<?> record = this.record;
+		if(record == null) {
+			this.record = record = new RecordInfo<>(clazz);
+		}
+		return record;
+	}
+	
+	List<Class<?>> getPermittedChilds() {
+		List<Class<?>> childs = permittedChilds;
+		if(childs == null) {
+			final List<Class<?>> list = new ArrayList<>();
+			ClassUtils.getPermittedChilds(clazz, list);
+			permittedChilds = childs = Collections.unmodifiableList(list);
+		}
+		return childs;
+	}
+	
+	/** return annotation masks, recomputed if annotation types were registered after last computation */
+	AnnotationIndex.Masks getAnnotationMasks(AnnotationIndex index) {
+		AnnotationIndex.Masks masks = annotationMasks;
+		if(masks == null || masks.size != index.size()) {
+			annotationMasks = masks = new AnnotationIndex.Masks(index, clazz);
+		}
+		return masks;
+	}
+	
+	@SuppressWarnings("unchecked")
+	<T> StructLayout<T> getLayout(Class<T> layoutClass, Class<? extends Annotation> annotationClass) {
+		return (StructLayout<T>) layouts.computeIfAbsent(List.of(layoutClass, annotationClass), 
+				key -> new StructLayout<>(layoutClass, annotationClass));
+	}
+	
+	/** return type variables bound in class hierarchy */
+	Map<TypeVariable<?>, Type> getTypeBindings() {
+		Map<TypeVariable<?>, Type> bindings = typeBindings;
+		if(bindings == null) {
+			typeBindings = bindings = TypeResolver.getBindings(clazz);
+		}
+		return bindings;
+	}
+	
+	Type getFieldType(Field field) {
+		return fieldTypes.computeIfAbsent(field, f -> TypeResolver.resolve(f.getGenericType(), getTypeBindings()));
+	}
+	
+	Type getReturnType(Method method) {
+		return returnTypes.computeIfAbsent(method, m -> TypeResolver.resolve(m.getGenericReturnType(), getTypeBindings()));
+	}
+	
+	Type[] getParameterTypes(Method method) {
+		return parameterTypes.computeIfAbsent(method, m -> TypeResolver.resolve(m.getGenericParameterTypes(), getTypeBindings()));
+	}
+	
+	/** return invoker of method of target class. failed resolution is cached too and new exception is thrown for each call */
+	MethodInvoker getInvoker(Class<?> target, String name, Class<?>[] argTypes, boolean statics) throws ReflectiveOperationUncheckedException {
+		final MethodSignature signature = new MethodSignature(target, name, argTypes, statics);
+		Object invoker = invokers.get(signature);
+		if(invoker == null) {
+			try {
+				invoker = MethodResolver.resolve(target, name, argTypes, statics);
+			} catch(ReflectiveOperationUncheckedException e) {
+				invoker = new InvokerFailure(e);
+			}
+			
+			final Object existing = invokers.putIfAbsent(new MethodSignature(target, name, argTypes.clone(), statics), invoker);
+			if(existing != null) {
+				invoker = existing;
+			}
+		}
+		
+		if(invoker instanceof InvokerFailure) {
+			throw ((InvokerFailure) invoker).newException();
+		}
+		return (MethodInvoker) invoker;
+	}
+	
+	/** failed method resolution. exception itself is not cached: its backtrace holds classes of caller frames */
+	private static final class InvokerFailure {
+		private final String message;
+		private final boolean noSuchMethod;
+		
+		private InvokerFailure(ReflectiveOperationUncheckedException e) {
+			noSuchMethod = e.getCause() instanceof NoSuchMethodException;
+			message = noSuchMethod ? e.getCause().getMessage() : e.getMessage();
+		}
+		
+		private ReflectiveOperationUncheckedException newException() {
+			if(noSuchMethod) {
+				return new ReflectiveOperationUncheckedException(new NoSuchMethodException(message));
+			}
+			return new ReflectiveOperationUncheckedException(message);
+		}
+	}
+	
+	/** target class, method name, argument types of call site and whether only static methods are resolved */
+	private static final class MethodSignature {
+		private final Class<?> target;
+		private final String name;
+		private final Class<?>[] argTypes;
+		private final boolean statics;
+		private final int hash;
+		
+		private MethodSignature(Class<?> target, String name, Class<?>[] argTypes, boolean statics) {
+			this.target = target;
+			this.name = name;
+			this.argTypes = argTypes;
+			this.statics = statics;
+			hash = ((target.hashCode() * 31 + name.hashCode()) * 31 + Arrays.hashCode(argTypes)) * 31 + Boolean.hashCode(statics);
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			if(this == obj) {
+				return true;
+			} else if(!(obj instanceof MethodSignature)) {
+				return false;
+			}
+			
+			final MethodSignature signature = (MethodSignature) obj;
+			return hash == signature.hash && target == signature.target && statics == signature.statics && name.equals(signature.name) 
+					&& Arrays.equals(argTypes, signature.argTypes);
+		}
+		
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+	}
+}
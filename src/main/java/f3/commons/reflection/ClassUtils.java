@@ -17,9 +17,9 @@ package f3.commons.reflection;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Constructor;
-import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -31,13 +31,9 @@ import f3.commons.reflection.exception.ReflectiveOperationUncheckedException;
  *
  */
 public class ClassUtils {
-	/** Class.forName with runtime exception */
+	/** Class.forName with runtime exception, cached by default context */
 	public static Class<?> getClass(String path) throws ClassNotFoundUncheckedException {
-		try {
-			return Class.forName(path);
-		} catch(ClassNotFoundException e) {
-			throw new ClassNotFoundUncheckedException(e);
-		}
+		return ReflectionContext.getDefault().getClass(path);
 	}
 	
 	/** Class.forName with runtime exception */
@@ -113,6 +109,7 @@ public class ClassUtils {
 		constructorLabel:
 		for(int i = 0; i < constructors.length; i++) {
 			final Constructor<?> constructor = constructors[i];
+			Object[] args = params; // copied on conversion, caller array can be shared between threads
 			
 			Class<?>[] parameters = constructor.getParameterTypes();
 			if(parameters.length != params.length) {
@@ -136,7 +133,10 @@ public class ClassUtils {
 				final Class<?> parameter = parameters[j];
 				final Class<?> paramClass = param.getClass();
 				if(parameter.isPrimitive() && !paramClass.isPrimitive() && isPrimitiveWrap(paramClass, parameter)) {
-					params[j] = transformStringToType(param.toString(), parameter);
+					if(args == params) {
+						args = params.clone();
+					}
+					args[j] = transformStringToType(param.toString(), parameter);
 					continue;
 				}
 				
@@ -148,7 +148,7 @@ public class ClassUtils {
 			}
 			
 			try {
-				return constructor.newInstance(params);
+				return constructor.newInstance(args);
 			} catch(ReflectiveOperationException e) {
 				throw new RuntimeException(e);
 			}
@@ -170,14 +170,8 @@ public class ClassUtils {
 	}
 	
 	public static boolean isPrimitiveWrap(Class<?> clazz, Class<?> primitiveClass) {
-		try {
-			Field field = clazz.getDeclaredField("TYPE");
-			field.setAccessible(true);
-			Class<?> type = (Class<?>) field.get(null);
-			return type == primitiveClass || primitiveClass.isAssignableFrom(clazz);
-		} catch (ReflectiveOperationException e) {
-			return false;
-		}
+		final Class<?> type = clazz.isPrimitive() ? null : Primitive.getPrimitive(clazz);
+		return type != null && (type == primitiveClass || primitiveClass.isAssignableFrom(clazz));
 	}
 	
 	/** primitives, primitives arrays, enums. exclude string arrays */
@@ -343,6 +337,60 @@ public class ClassUtils {
 		return child;
 	}
 	
+	/** return implementation of sealed parent, resolved by permits list. if childs more than one throw exception.
+	 * if child not found or hierarchy is open by non-sealed class throw exception */
+	public static Class<?> getChildOf(Class<?> parent) throws ClassNotFoundUncheckedException {
+		if(!isAbstractClass(parent)) {
+			return parent;
+		}
+		
+		if(!parent.isSealed()) {
+			throw new ClassNotFoundUncheckedException("Class " + parent.getName() + " is not sealed");
+		}
+		
+		final List<Class<?>> childs = ReflectionContext.getDefault().getPermittedChilds(parent);
+		if(childs.isEmpty()) {
+			throw new ClassNotFoundUncheckedException("Child not found");
+		} else if(childs.size() > 1) {
+			throw new ClassNotFoundUncheckedException("Childs more than one");
+		}
+		
+		return childs.get(0);
+	}
+	
+	/** return all non-abstract classes of sealed hierarchy, resolved by permits lists. 
+	 * if parent is not sealed return empty list. if hierarchy contains non-sealed class, its childs 
+	 * can not be known, so throw exception. cached by default context */
+	public static List<Class<?>> getPermittedChilds(Class<?> parent) throws ClassNotFoundUncheckedException {
+		return new ArrayList<>(ReflectionContext.getDefault().getPermittedChilds(parent));
+	}
+	
+	public static void getPermittedChilds(Class<?> parent, List<Class<?>> out) throws ClassNotFoundUncheckedException {
+		final Class<?>[] permitted = parent.getPermittedSubclasses();
+		if(permitted == null) {
+			return;
+		}
+		
+		for(int i = 0; i < permitted.length; i++) {
+			final Class<?> clazz = permitted[i];
+			if(!Modifier.isFinal(clazz.getModifiers()) && !clazz.isSealed()) {
+				throw new ClassNotFoundUncheckedException("Sealed hierarchy of " + parent.getName() 
+						+ " is open by non-sealed class " + clazz.getName());
+			}
+			
+			if(!isAbstractClass(clazz) && !out.contains(clazz)) {
+				out.add(clazz);
+			}
+			
+			getPermittedChilds(clazz, out);
+		}
+	}
+	
+	/** return raw class of generic type. type variables and wildcards are erased to first upper bound */
+	public static Class<?> getRawClass(Type type) {
+		return TypeResolver.getRawType(type);
+	}
+	
 	public static boolean isAbstractClass(Class<?> clazz) {
 		final int modifiers = clazz.getModifiers();
 		return Modifier.isAbstract(modifiers) || Modifier.isInterface(modifiers);
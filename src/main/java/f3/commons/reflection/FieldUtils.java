@@ -17,6 +17,7 @@ package f3.commons.reflection;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
+import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -77,4 +78,33 @@ public class FieldUtils {
 		
 		getAnnotationField(superClass, annotationClass, out);
 	}
+	
+	/** return fields annotated by any annotation of mask, checked by cached annotation masks. 
+	 * mask must be created by default context, e.g. by {@link AnnotationUtils#getTypesMask(Class...)} */
+	public static List<Field> getAnnotatedField(Class<?> clazz, AnnotationMask mask) throws IllegalArgumentException {
+		List<Field> list = new ArrayList<>();
+		getAnnotatedField(clazz, mask, list);
+		return list;
+	}
+	
+	public static void getAnnotatedField(Class<?> clazz, AnnotationMask mask, List<Field> out) throws IllegalArgumentException {
+		ReflectionContext.getDefault().getAnnotationIndex().getAnnotatedFields(clazz, mask, out);
+		
+		final Class<?> superClass = clazz.getSuperclass();
+		if(superClass == null || superClass == Object.class) {
+			return;
+		}
+		
+		getAnnotatedField(superClass, mask, out);
+	}
+	
+	/** return generic type of field with type variables bound by specified class hierarchy, e.g. List&lt;Foo&gt; for List&lt;T&gt; */
+	public static Type getResolvedType(Class<?> clazz, Field field) {
+		return ReflectionContext.getDefault().getResolvedType(clazz, field);
+	}
+	
+	/** return raw class of field type with type variables bound by specified class hierarchy */
+	public static Class<?> getResolvedClass(Class<?> clazz, Field field) {
+		return TypeResolver.getRawType(getResolvedType(clazz, field));
+	}
 }
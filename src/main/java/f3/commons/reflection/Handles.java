@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2010-2018 fork3
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software
+ * is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES 
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE 
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR 
+ * IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package f3.commons.reflection;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+import f3.commons.reflection.exception.ReflectiveOperationUncheckedException;
+
+/**
+ * Method handles helpers shared by generated accessors and invokers.
+ * Handles of varargs members are returned with fixed arity, so spreaders treat varargs as plain array.
+ * @author n3k0nation
+ *
+ */
+final class Handles {
+	private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+	
+	private Handles() {
+		throw new RuntimeException();
+	}
+	
+	static MethodHandle unreflect(Method method) throws ReflectiveOperationUncheckedException {
+		method.setAccessible(true);
+		try {
+			return LOOKUP.unreflect(method).asFixedArity();
+		} catch(IllegalAccessException e) {
+			throw new ReflectiveOperationUncheckedException(e);
+		}
+	}
+	
+	static MethodHandle unreflectConstructor(Constructor<?> constructor) throws ReflectiveOperationUncheckedException {
+		constructor.setAccessible(true);
+		try {
+			return LOOKUP.unreflectConstructor(constructor).asFixedArity();
+		} catch(IllegalAccessException e) {
+			throw new ReflectiveOperationUncheckedException(e);
+		}
+	}
+	
+	static MethodHandle unreflectGetter(Field field) throws ReflectiveOperationUncheckedException {
+		field.setAccessible(true);
+		try {
+			return LOOKUP.unreflectGetter(field);
+		} catch(IllegalAccessException e) {
+			throw new ReflectiveOperationUncheckedException(e);
+		}
+	}
+	
+	static MethodHandle unreflectSetter(Field field) throws ReflectiveOperationUncheckedException {
+		field.setAccessible(true);
+		try {
+			return LOOKUP.unreflectSetter(field);
+		} catch(IllegalAccessException e) {
+			throw new ReflectiveOperationUncheckedException(e);
+		}
+	}
+	
+	/** initialize loaded class without resolving its name again. 
+	 * class of module, which is not opened to this library, is initialized by Class.forName of its own class loader */
+	static void ensureInitialized(Class<?> clazz) throws ReflectiveOperationUncheckedException {
+		if(clazz.isPrimitive() || clazz.isArray()) {
+			return;
+		}
+		
+		try {
+			MethodHandles.privateLookupIn(clazz, LOOKUP).ensureInitialized(clazz);
+		} catch(IllegalAccessException e) {
+			try {
+				Class.forName(clazz.getName(), true, clazz.getClassLoader());
+			} catch(ClassNotFoundException ex) {
+				throw new ReflectiveOperationUncheckedException(ex);
+			}
+		}
+	}
+	
+	/** return unchecked exception for throwable from handle invocation. errors rethrown as is */
+	static RuntimeException rethrow(Throwable e) {
+		if(e instanceof RuntimeException) {
+			return (RuntimeException) e;
+		} else if(e instanceof Error) {
+			throw (Error) e;
+		}
+		
+		return new ReflectiveOperationUncheckedException(new InvocationTargetException(e));
+	}
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2010-2018 fork3
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software
+ * is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES 
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE 
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR 
+ * IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package f3.commons.reflection;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Cached invoker of method, resolved by name and argument types. 
+ * Arguments are unboxed and widened to parameter types, trailing arguments are packed to array if method was resolved as varargs.
+ * @author n3k0nation
+ *
+ */
+public final class MethodInvoker {
+	private final Method method;
+	private final boolean varargs;
+	/** (Object,Object[])Object, target is ignored for static method */
+	private final MethodHandle handle;
+	
+	MethodInvoker(Method method, boolean varargs) {
+		this.method = method;
+		this.varargs = varargs;
+		
+		final int count = method.getParameterCount();
+		MethodHandle handle = Handles.unreflect(method).asSpreader(Object[].class, count);
+		if(Modifier.isStatic(method.getModifiers())) {
+			handle = MethodHandles.dropArguments(handle, 0, Object.class);
+		}
+		this.handle = handle.asType(MethodType.methodType(Object.class, Object.class, Object[].class));
+	}
+	
+	public Method getMethod() {
+		return method;
+	}
+	
+	/** return true if trailing arguments are packed to varargs array */
+	public boolean isVarargs() {
+		return varargs;
+	}
+	
+	/** invoke method. for static method target is ignored. return null for void method */
+	public Object invoke(Object target, Object... args) {
+		if(varargs) {
+			args = packVarargs(args);
+		}
+		
+		try {
+			return handle.invokeExact(target, args);
+		} catch(Throwable e) {
+			throw Handles.rethrow(e);
+		}
+	}
+	
+	private Object[] packVarargs(Object[] args) {
+		final Class<?>[] parameters = method.getParameterTypes();
+		final int fixed = parameters.length - 1;
+		final Object array = Array.newInstance(parameters[fixed].getComponentType(), args.length - fixed);
+		for(int i = fixed; i < args.length; i++) {
+			Array.set(array, i - fixed, args[i]);
+		}
+		
+		final Object[] packed = new Object[parameters.length];
+		System.arraycopy(args, 0, packed, 0, fixed);
+		packed[fixed] = array;
+		return packed;
+	}
+}
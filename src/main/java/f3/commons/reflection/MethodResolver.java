@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2010-2018 fork3
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software
+ * is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES 
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE 
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR 
+ * IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package f3.commons.reflection;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import f3.commons.reflection.exception.ReflectiveOperationUncheckedException;
+
+/**
+ * Overload resolution of public methods by argument types, in phases of JLS 15.12.2: 
+ * by subtyping and primitive widening, then with boxing and unboxing, then as varargs. 
+ * Null argument type matches any reference parameter.
+ * @author n3k0nation
+ *
+ */
+final class MethodResolver {
+	private MethodResolver() {
+		throw new RuntimeException();
+	}
+	
+	/** resolve method among all public methods or among static ones only */
+	static MethodInvoker resolve(Class<?> clazz, String name, Class<?>[] argTypes, boolean statics) throws ReflectiveOperationUncheckedException {
+		final List<Method> candidates = new ArrayList<>();
+		final Method[] methods = clazz.getMethods();
+		for(int i = 0; i < methods.length; i++) {
+			final Method method = methods[i];
+			if(method.getName().equals(name) && !method.isBridge() && (!statics || Modifier.isStatic(method.getModifiers()))) {
+				candidates.add(method);
+			}
+		}
+		
+		final List<Method> applicable = new ArrayList<>();
+		for(int phase = 0; phase < 3; phase++) {
+			final boolean boxing = phase > 0;
+			final boolean varargs = phase > 1;
+			for(int i = 0; i < candidates.size(); i++) {
+				final Method method = candidates.get(i);
+				if(isApplicable(method, argTypes, boxing, varargs)) {
+					applicable.add(method);
+				}
+			}
+			
+			if(applicable.isEmpty()) {
+				continue;
+			}
+			
+			Method best = null;
+			methodLabel:
+			for(int i = 0; i < applicable.size(); i++) {
+				final Method method = applicable.get(i);
+				for(int j = 0; j < applicable.size(); j++) {
+					if(i != j && !isMoreSpecific(method, applicable.get(j), argTypes.length, varargs)) {
+						continue methodLabel;
+					}
+				}
+				
+				if(best == null) {
+					best = method;
+				} else if(!isOverride(method, best)) {
+					throw new ReflectiveOperationUncheckedException("Ambiguous method " + toString(clazz, name, argTypes));
+				}
+			}
+			
+			if(best == null) {
+				throw new ReflectiveOperationUncheckedException("Ambiguous method " + toString(clazz, name, argTypes));
+			}
+			return new MethodInvoker(getAccessibleMethod(clazz, best), varargs);
+		}
+		
+		throw new ReflectiveOperationUncheckedException(new NoSuchMethodException((statics ? "static " : "") + toString(clazz, name, argTypes)));
+	}
+	
+	/** return method itself or same method of supertype, if method declared by class of not opened module. 
+	 * e.g. List.size for size of immutable list implementation */
+	private static Method getAccessibleMethod(Class<?> clazz, Method method) {
+		if(method.trySetAccessible()) {
+			return method;
+		}
+		
+		final Class<?>[] parameters = method.getParameterTypes();
+		for(Class<?> type = clazz; type != null; type = type.getSuperclass()) {
+			final Method found = findAccessibleMethod(type, method.getName(), parameters);
+			if(found != null) {
+				return found;
+			}
+		}
+		return method;
+	}
+	
+	private static Method findAccessibleMethod(Class<?> type, String name, Class<?>[] parameters) {
+		try {
+			final Method method = type.getDeclaredMethod(name, parameters);
+			if(method.trySetAccessible()) {
+				return method;
+			}
+		} catch(NoSuchMethodException e) {
+		}
+		
+		final Class<?>[] interfaces = type.getInterfaces();
+		for(int i = 0; i < interfaces.length; i++) {
+			final Method method = findAccessibleMethod(interfaces[i], name, parameters);
+			if(method != null) {
+				return method;
+			}
+		}
+		return null;
+	}
+	
+	private static boolean isApplicable(Method method, Class<?>[] argTypes, boolean boxing, boolean varargs) {
+		final Class<?>[] parameters = method.getParameterTypes();
+		if(varargs) {
+			if(!method.isVarArgs() || argTypes.length < parameters.length - 1) {
+				return false;
+			}
+		} else if(parameters.length != argTypes.length) {
+			return false;
+		}
+		
+		for(int i = 0; i < argTypes.length; i++) {
+			if(!isAssignable(getParameterType(parameters, i, varargs), argTypes[i], boxing)) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/** method is more specific if each parameter is assignable to parameter of other method. 
+	 * in varargs phase all parameters are compared with expanded variable arity types (JLS 15.12.2.5), 
+	 * so h(String...) is more specific than h(Object...) for call without arguments */
+	private static boolean isMoreSpecific(Method method, Method other, int count, boolean varargs) {
+		final Class<?>[] parameters = method.getParameterTypes();
+		final Class<?>[] otherParameters = other.getParameterTypes();
+		if(varargs) {
+			count = Math.max(count, Math.max(parameters.length, otherParameters.length));
+		}
+		
+		for(int i = 0; i < count; i++) {
+			if(!isAssignable(getParameterType(otherParameters, i, varargs), getParameterType(parameters, i, varargs), false)) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/** return true if methods have same parameters, e.g. interface method and its implementation returned both */
+	private static boolean isOverride(Method method, Method other) {
+		return Arrays.equals(method.getParameterTypes(), other.getParameterTypes());
+	}
+	
+	private static Class<?> getParameterType(Class<?>[] parameters, int index, boolean varargs) {
+		final int last = parameters.length - 1;
+		if(varargs && index >= last) {
+			return parameters[last].getComponentType();
+		}
+		return parameters[index];
+	}
+	
+	private static boolean isAssignable(Class<?> parameter, Class<?> arg, boolean boxing) {
+		if(arg == null) {
+			return !parameter.isPrimitive();
+		} else if(parameter == arg) {
+			return true;
+		} else if(parameter.isPrimitive()) {
+			if(!arg.isPrimitive()) {
+				if(!boxing) {
+					return false;
+				}
+				
+				arg = Primitive.getPrimitive(arg);
+				if(arg == null) {
+					return false;
+				} else if(arg == parameter) {
+					return true;
+				}
+			}
+			return isWidening(arg, parameter);
+		} else if(arg.isPrimitive()) {
+			return boxing && parameter.isAssignableFrom(Primitive.getWrap(arg));
+		}
+		
+		return parameter.isAssignableFrom(arg);
+	}
+	
+	private static boolean isWidening(Class<?> from, Class<?> to) {
+		if(from == byte.class) {
+			return to == short.class || to == int.class || to == long.class || to == float.class || to == double.class;
+		} else if(from == short.class || from == char.class) {
+			return to == int.class || to == long.class || to == float.class || to == double.class;
+		} else if(from == int.class) {
+			return to == long.class || to == float.class || to == double.class;
+		} else if(from == long.class) {
+			return to == float.class || to == double.class;
+		} else if(from == float.class) {
+			return to == double.class;
+		}
+		return false;
+	}
+	
+	private static String toString(Class<?> clazz, String name, Class<?>[] argTypes) {
+		final StringBuilder sb = new StringBuilder();
+		sb.append(clazz.getName()).append('.').append(name).append('(');
+		for(int i = 0; i < argTypes.length; i++) {
+			final Class<?> argType = argTypes[i];
+			sb.append(argType == null ? "null" : argType.getSimpleName());
+			if(i != argTypes.length - 1) {
+				sb.append(", ");
+			}
+		}
+		return sb.append(')').toString();
+	}
+}
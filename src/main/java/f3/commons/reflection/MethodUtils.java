@@ -17,9 +17,12 @@ package f3.commons.reflection;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
+import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.List;
 
+import f3.commons.reflection.exception.ReflectiveOperationUncheckedException;
+
 /**
  * @author n3k0nation
  *
@@ -77,4 +80,63 @@ public class MethodUtils {
 		
 		getAnnotationMethod(superClass, annotationClass, out);
 	}
+	
+	/** return methods annotated by any annotation of mask, checked by cached annotation masks. 
+	 * mask must be created by default context, e.g. by {@link AnnotationUtils#getTypesMask(Class...)} */
+	public static List<Method> getAnnotatedMethods(Class<?> clazz, AnnotationMask mask) throws IllegalArgumentException {
+		List<Method> list = new ArrayList<>();
+		getAnnotatedMethods(clazz, mask, list);
+		return list;
+	}
+	
+	public static void getAnnotatedMethods(Class<?> clazz, AnnotationMask mask, List<Method> out) throws IllegalArgumentException {
+		ReflectionContext.getDefault().getAnnotationIndex().getAnnotatedMethods(clazz, mask, out);
+		
+		final Class<?> superClass = clazz.getSuperclass();
+		if(superClass == null || superClass == Object.class) {
+			return;
+		}
+		
+		getAnnotatedMethods(superClass, mask, out);
+	}
+	
+	/** return generic return type of method with type variables bound by specified class hierarchy */
+	public static Type getResolvedReturnType(Class<?> clazz, Method method) {
+		return ReflectionContext.getDefault().getResolvedReturnType(clazz, method);
+	}
+	
+	/** return generic parameter types of method with type variables bound by specified class hierarchy */
+	public static Type[] getResolvedParameterTypes(Class<?> clazz, Method method) {
+		return ReflectionContext.getDefault().getResolvedParameterTypes(clazz, method);
+	}
+	
+	/** return cached invoker of public method, resolved by name and argument types with boxing and varargs. 
+	 * null argument type matches any reference parameter */
+	public static MethodInvoker getInvoker(Class<?> clazz, String name, Class<?>... argTypes) throws ReflectiveOperationUncheckedException {
+		return ReflectionContext.getDefault().getMethodInvoker(clazz, name, argTypes);
+	}
+	
+	/** invoke public method of target, resolved by name and runtime argument types */
+	public static Object invoke(Object target, String name, Object... args) throws ReflectiveOperationUncheckedException {
+		return getInvoker(target.getClass(), name, getArgTypes(args)).invoke(target, args);
+	}
+	
+	/** return cached invoker of public static method, resolved among static methods only */
+	public static MethodInvoker getStaticInvoker(Class<?> clazz, String name, Class<?>... argTypes) throws ReflectiveOperationUncheckedException {
+		return ReflectionContext.getDefault().getStaticMethodInvoker(clazz, name, argTypes);
+	}
+	
+	/** invoke public static method of class, resolved by name and runtime argument types among static methods */
+	public static Object invokeStatic(Class<?> clazz, String name, Object... args) throws ReflectiveOperationUncheckedException {
+		return getStaticInvoker(clazz, name, getArgTypes(args)).invoke(null, args);
+	}
+	
+	private static Class<?>[] getArgTypes(Object[] args) {
+		final Class<?>[] argTypes = new Class<?>[args.length];
+		for(int i = 0; i < args.length; i++) {
+			final Object arg = args[i];
+			argTypes[i] = arg == null ? null : arg.getClass();
+		}
+		return argTypes;
+	}
 }
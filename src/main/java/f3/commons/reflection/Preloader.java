@@ -0,0 +1,283 @@
+/*
+ * Copyright (c) 2010-2018 fork3
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software
+ * is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES 
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE 
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR 
+ * IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package f3.commons.reflection;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+import f3.commons.reflection.exception.ClassNotFoundUncheckedException;
+
+/**
+ * Front-loads reflection cost before traffic: loads classes by context class loader without initialization and fills 
+ * context caches, reflection data, annotations, record accessors and sealed hierarchies on background threads. 
+ * Classes are specified directly, by packages (scanned on class loader resources) or by persisted index, 
+ * which is text file with one class name per line (see {@link #writeIndex(Path, Collection)}).
+ * Resolved class names are cached by context, first initializing {@link ReflectionContext#getClass(String)} 
+ * initializes class without resolving name again. Annotation masks are filled only for annotation types registered 
+ * before start (see {@link #addAnnotationType(Class)}): masks are recomputed, when more types are registered.
+ * @author n3k0nation
+ *
+ */
+public class Preloader {
+	private static final String CLASS_SUFFIX = ".class";
+	
+	private final ReflectionContext context;
+	private final Set<String> classNames = new LinkedHashSet<>();
+	private final Set<String> packages = new LinkedHashSet<>();
+	private final Set<Class<? extends Annotation>> annotationTypes = new LinkedHashSet<>();
+	private final Queue<Class<?>> loaded = new ConcurrentLinkedQueue<>();
+	private final Map<String, Throwable> failed = new ConcurrentHashMap<>();
+	private volatile CompletableFuture<List<Class<?>>> future;
+	
+	/** preloader of default context */
+	public Preloader() {
+		this(ReflectionContext.getDefault());
+	}
+	
+	public Preloader(ReflectionContext context) {
+		this.context = context;
+	}
+	
+	public synchronized Preloader addClass(Class<?> clazz) {
+		classNames.add(clazz.getName());
+		return this;
+	}
+	
+	public synchronized Preloader addClass(String className) {
+		classNames.add(className);
+		return this;
+	}
+	
+	/** add all classes of package and subpackages */
+	public synchronized Preloader addPackage(String packageName) {
+		packages.add(packageName);
+		return this;
+	}
+	
+	/** add annotation type, which is registered in context annotation index on start, before annotation masks are filled. 
+	 * all types used by annotation scans should be added, otherwise masks are recomputed on first scan */
+	public synchronized Preloader addAnnotationType(Class<? extends Annotation> annotationClass) {
+		annotationTypes.add(annotationClass);
+		return this;
+	}
+	
+	/** add classes from index file. empty lines and lines started by # are ignored */
+	public synchronized Preloader addIndex(Path index) throws UncheckedIOException {
+		final List<String> lines;
+		try {
+			lines = Files.readAllLines(index, StandardCharsets.UTF_8);
+		} catch(IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		
+		for(int i = 0; i < lines.size(); i++) {
+			final String line = lines.get(i).trim();
+			if(!line.isEmpty() && !line.startsWith("#")) {
+				classNames.add(line);
+			}
+		}
+		return this;
+	}
+	
+	/** start preloading on common pool */
+	public CompletableFuture<List<Class<?>>> start() {
+		return start(ForkJoinPool.commonPool());
+	}
+	
+	/** start preloading on specified executor. returned future completes by list of loaded classes, 
+	 * when all classes are processed. repeated calls return same future. 
+	 * throw exception if added annotation type is not visible from context class loader */
+	public synchronized CompletableFuture<List<Class<?>>> start(Executor executor) throws IllegalArgumentException {
+		if(future != null) {
+			return future;
+		}
+		
+		final AnnotationIndex index = context.getAnnotationIndex();
+		for(Class<? extends Annotation> annotationClass : annotationTypes) {
+			index.register(annotationClass);
+		}
+		
+		final List<String> names = new ArrayList<>(classNames);
+		final List<String> packageNames = new ArrayList<>(packages);
+		future = CompletableFuture.supplyAsync(() -> {
+			final Set<String> set = new LinkedHashSet<>(names);
+			for(int i = 0; i < packageNames.size(); i++) {
+				scanPackage(packageNames.get(i), set);
+			}
+			return set;
+		}, executor).thenCompose(set -> {
+			final List<CompletableFuture<Void>> tasks = new ArrayList<>(set.size());
+			for(String name : set) {
+				tasks.add(CompletableFuture.runAsync(() -> preload(name), executor));
+			}
+			return CompletableFuture.allOf(tasks.toArray(new CompletableFuture<?>[tasks.size()]));
+		}).thenApply(v -> new ArrayList<>(loaded));
+		return future;
+	}
+	
+	/** return true if preloading started and completed */
+	public boolean isDone() {
+		final CompletableFuture<List<Class<?>>> future = this.future;
+		return future != null && future.isDone();
+	}
+	
+	/** return names of classes failed to preload with failure causes */
+	public Map<String, Throwable> getFailed() {
+		return new HashMap<>(failed);
+	}
+	
+	/** write index of classes, which can be loaded by {@link #addIndex(Path)} */
+	public static void writeIndex(Path index, Collection<Class<?>> classes) throws UncheckedIOException {
+		final List<String> lines = new ArrayList<>(classes.size());
+		for(Class<?> clazz : classes) {
+			lines.add(clazz.getName());
+		}
+		
+		try {
+			Files.write(index, lines, StandardCharsets.UTF_8);
+		} catch(IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	private void preload(String className) {
+		final Class<?> clazz;
+		try {
+			clazz = context.getClass(className, false);
+			preload(clazz);
+		} catch(RuntimeException | LinkageError e) {
+			failed.put(className, e);
+			return;
+		}
+		
+		loaded.add(clazz);
+	}
+	
+	private void preload(Class<?> clazz) {
+		clazz.getAnnotations();
+		clazz.getConstructors();
+		clazz.getDeclaredConstructors();
+		clazz.getMethods();
+		
+		final Field[] fields = clazz.getDeclaredFields();
+		for(int i = 0; i < fields.length; i++) {
+			fields[i].getAnnotations();
+		}
+		
+		final Method[] methods = clazz.getDeclaredMethods();
+		for(int i = 0; i < methods.length; i++) {
+			methods[i].getAnnotations();
+		}
+		
+		final AnnotationIndex index = context.getAnnotationIndex();
+		if(index.size() > 0) { // masks without registered types are recomputed on first scan anyway
+			index.getMask(clazz); // computes masks of declared fields and methods too
+		}
+		
+		if(clazz.isRecord()) {
+			context.getRecordFactory(clazz);
+		}
+		
+		if(clazz.isSealed()) {
+			try {
+				context.getPermittedChilds(clazz);
+			} catch(ClassNotFoundUncheckedException e) {
+				// hierarchy is open by non-sealed class, nothing to cache
+			}
+		}
+	}
+	
+	private void scanPackage(String packageName, Set<String> out) throws UncheckedIOException {
+		final String path = packageName.replace('.', '/');
+		try {
+			final Enumeration<URL> resources = context.getClassLoader().getResources(path);
+			while(resources.hasMoreElements()) {
+				final URL url = resources.nextElement();
+				if("file".equals(url.getProtocol())) {
+					scanDirectory(Paths.get(url.toURI()), packageName, out);
+				} else {
+					final URLConnection connection = url.openConnection();
+					if(connection instanceof JarURLConnection) {
+						scanJar(((JarURLConnection) connection).getJarFile(), path, out);
+					}
+				}
+			}
+		} catch(IOException e) {
+			throw new UncheckedIOException(e);
+		} catch(URISyntaxException e) {
+			throw new IllegalArgumentException(e);
+		}
+	}
+	
+	private static void scanDirectory(Path directory, String packageName, Set<String> out) throws IOException {
+		try(Stream<Path> stream = Files.walk(directory)) {
+			stream.forEach(file -> {
+				final String name = directory.relativize(file).toString();
+				if(isClassFile(name)) {
+					out.add(packageName + "." + toClassName(name.replace(File.separatorChar, '/')));
+				}
+			});
+		}
+	}
+	
+	private static void scanJar(JarFile jar, String path, Set<String> out) {
+		final String prefix = path + "/";
+		final Enumeration<JarEntry> entries = jar.entries();
+		while(entries.hasMoreElements()) {
+			final String name = entries.nextElement().getName();
+			if(name.startsWith(prefix) && isClassFile(name)) {
+				out.add(toClassName(name));
+			}
+		}
+	}
+	
+	private static boolean isClassFile(String name) {
+		return name.endsWith(CLASS_SUFFIX) && !name.endsWith("module-info.class") && !name.endsWith("package-info.class");
+	}
+	
+	private static String toClassName(String name) {
+		return name.substring(0, name.length() - CLASS_SUFFIX.length()).replace('/', '.');
+	}
+}
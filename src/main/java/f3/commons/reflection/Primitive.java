@@ -43,6 +43,8 @@ public class Primitive {
 			return Float.class;
 		} else if(clazz == double.class) {
 			return Double.class;
+		} else if(clazz == boolean.class) {
+			return Boolean.class;
 		} else {
 			return Void.class;
 		}
@@ -68,10 +70,38 @@ public class Primitive {
 			return float.class;
 		} else if(clazz == Double.class) {
 			return double.class;
+		} else if(clazz == Boolean.class) {
+			return boolean.class;
 		} else if(clazz == Void.class) {
 			return void.class;
 		} else {
 			return null;
 		}
 	}
+	
+	/** Return size in bytes of primitive or primitive wrap class type. 
+	 * Boolean takes one byte, void takes zero. 
+	 * If incoming class is not primitive or primitive wrap type return -1. */
+	public static int getSize(Class<?> clazz) {
+		final Class<?> primitive = getPrimitive(clazz);
+		if(primitive == null) {
+			return -1;
+		} else if(primitive == byte.class || primitive == boolean.class) {
+			return Byte.BYTES;
+		} else if(primitive == short.class) {
+			return Short.BYTES;
+		} else if(primitive == char.class) {
+			return Character.BYTES;
+		} else if(primitive == int.class) {
+			return Integer.BYTES;
+		} else if(primitive == long.class) {
+			return Long.BYTES;
+		} else if(primitive == float.class) {
+			return Float.BYTES;
+		} else if(primitive == double.class) {
+			return Double.BYTES;
+		} else {
+			return 0;
+		}
+	}
 }
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2010-2018 fork3
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software
+ * is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES 
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE 
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR 
+ * IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package f3.commons.reflection;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.RecordComponent;
+import java.lang.reflect.Type;
+
+/**
+ * Cached accessor of record component. Primitive getters require exact component type and do not box value.
+ * @author n3k0nation
+ *
+ */
+public final class RecordComponentAccessor {
+	private final RecordComponent component;
+	private final Class<?> type;
+	/** (Object)Object */
+	private final MethodHandle getter;
+	/** (Object)type */
+	private final MethodHandle exactGetter;
+	
+	RecordComponentAccessor(RecordComponent component) {
+		this.component = component;
+		type = component.getType();
+		
+		final MethodHandle handle = Handles.unreflect(component.getAccessor());
+		getter = handle.asType(MethodType.methodType(Object.class, Object.class));
+		exactGetter = handle.asType(MethodType.methodType(type, Object.class));
+	}
+	
+	public RecordComponent getComponent() {
+		return component;
+	}
+	
+	public String getName() {
+		return component.getName();
+	}
+	
+	public Class<?> getType() {
+		return type;
+	}
+	
+	public Type getGenericType() {
+		return component.getGenericType();
+	}
+	
+	public Object get(Object record) {
+		try {
+			return getter.invokeExact(record);
+		} catch(Throwable e) {
+			throw Handles.rethrow(e);
+		}
+	}
+	
+	public boolean getBoolean(Object record) {
+		checkType(boolean.class);
+		try {
+			return (boolean) exactGetter.invokeExact(record);
+		} catch(Throwable e) {
+			throw Handles.rethrow(e);
+		}
+	}
+	
+	public byte getByte(Object record) {
+		checkType(byte.class);
+		try {
+			return (byte) exactGetter.invokeExact(record);
+		} catch(Throwable e) {
+			throw Handles.rethrow(e);
+		}
+	}
+	
+	public char getChar(Object record) {
+		checkType(char.class);
+		try {
+			return (char) exactGetter.invokeExact(record);
+		} catch(Throwable e) {
+			throw Handles.rethrow(e);
+		}
+	}
+	
+	public short getShort(Object record) {
+		checkType(short.class);
+		try {
+			return (short) exactGetter.invokeExact(record);
+		} catch(Throwable e) {
+			throw Handles.rethrow(e);
+		}
+	}
+	
+	public int getInt(Object record) {
+		checkType(int.class);
+		try {
+			return (int) exactGetter.invokeExact(record);
+		} catch(Throwable e) {
+			throw Handles.rethrow(e);
+		}
+	}
+	
+	public long getLong(Object record) {
+		checkType(long.class);
+		try {
+			return (long) exactGetter.invokeExact(record);
+		} catch(Throwable e) {
+			throw Handles.rethrow(e);
+		}
+	}
+	
+	public float getFloat(Object record) {
+		checkType(float.class);
+		try {
+			return (float) exactGetter.invokeExact(record);
+		} catch(Throwable e) {
+			throw Handles.rethrow(e);
+		}
+	}
+	
+	public double getDouble(Object record) {
+		checkType(double.class);
+		try {
+			return (double) exactGetter.invokeExact(record);
+		} catch(Throwable e) {
+			throw Handles.rethrow(e);
+		}
+	}
+	
+	private void checkType(Class<?> expected) {
+		if(type != expected) {
+			throw new IllegalArgumentException("Component " + component.getDeclaringRecord().getName() + "." + getName() 
+					+ " has type " + type.getName() + ", not " + expected.getName());
+		}
+	}
+}
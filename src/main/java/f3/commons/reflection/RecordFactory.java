@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2010-2018 fork3
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software
+ * is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES 
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE 
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR 
+ * IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package f3.commons.reflection;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+
+import f3.commons.reflection.exception.ReflectiveOperationUncheckedException;
+
+/**
+ * Cached factory of record, based on canonical constructor.
+ * @author n3k0nation
+ *
+ */
+public final class RecordFactory<T> {
+	private final Class<T> recordClass;
+	private final Constructor<T> constructor;
+	/** (Object[])Object */
+	private final MethodHandle handle;
+	
+	RecordFactory(Class<T> recordClass, Class<?>[] componentTypes) throws ReflectiveOperationUncheckedException {
+		this.recordClass = recordClass;
+		try {
+			constructor = recordClass.getDeclaredConstructor(componentTypes);
+		} catch(NoSuchMethodException e) {
+			throw new ReflectiveOperationUncheckedException("Canonical constructor of record " + recordClass.getName() + " not found", e);
+		}
+		
+		handle = Handles.unreflectConstructor(constructor)
+				.asSpreader(Object[].class, componentTypes.length)
+				.asType(MethodType.methodType(Object.class, Object[].class));
+	}
+	
+	public Class<T> getRecordClass() {
+		return recordClass;
+	}
+	
+	public Constructor<T> getConstructor() {
+		return constructor;
+	}
+	
+	/** create record with components in declaration order. primitive components can not be null */
+	public T create(Object... params) {
+		if(params.length != constructor.getParameterCount()) {
+			throw new IllegalArgumentException("Record " + recordClass.getName() + " has " + constructor.getParameterCount() 
+					+ " components, but " + params.length + " params passed");
+		}
+		
+		try {
+			return recordClass.cast(handle.invokeExact(params));
+		} catch(Throwable e) {
+			throw Handles.rethrow(e);
+		}
+	}
+}
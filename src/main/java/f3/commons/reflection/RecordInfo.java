@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2010-2018 fork3
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software
+ * is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES 
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE 
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR 
+ * IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package f3.commons.reflection;
+
+import java.lang.reflect.RecordComponent;
+
+/**
+ * Component accessors and canonical constructor factory of record class.
+ * @author n3k0nation
+ *
+ */
+final class RecordInfo<T> {
+	final RecordComponentAccessor[] accessors;
+	final RecordFactory<T> factory;
+	
+	RecordInfo(Class<T> recordClass) {
+		final RecordComponent[] components = recordClass.getRecordComponents();
+		accessors = new RecordComponentAccessor[components.length];
+		final Class<?>[] types = new Class<?>[components.length];
+		for(int i = 0; i < components.length; i++) {
+			accessors[i] = new RecordComponentAccessor(components[i]);
+			types[i] = components[i].getType();
+		}
+		
+		factory = new RecordFactory<>(recordClass, types);
+	}
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2010-2018 fork3
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software
+ * is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES 
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE 
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR 
+ * IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package f3.commons.reflection;
+
+import f3.commons.reflection.exception.NoSuchFieldUncheckedException;
+import f3.commons.reflection.exception.ReflectiveOperationUncheckedException;
+
+/**
+ * Record components access with cached accessors and canonical constructor factories of default {@link ReflectionContext}.
+ * @author n3k0nation
+ *
+ */
+public class RecordUtils {
+	private RecordUtils() {
+		throw new RuntimeException();
+	}
+	
+	/** return accessors of record components in declaration order */
+	public static RecordComponentAccessor[] getAccessors(Class<?> recordClass) throws ReflectiveOperationUncheckedException {
+		return ReflectionContext.getDefault().getRecordAccessors(recordClass);
+	}
+	
+	public static RecordComponentAccessor getAccessor(Class<?> recordClass, String name) throws NoSuchFieldUncheckedException {
+		return ReflectionContext.getDefault().getRecordAccessor(recordClass, name);
+	}
+	
+	public static <T> RecordFactory<T> getFactory(Class<T> recordClass) throws ReflectiveOperationUncheckedException {
+		return ReflectionContext.getDefault().getRecordFactory(recordClass);
+	}
+	
+	/** create record by canonical constructor */
+	public static <T> T createInstance(Class<T> recordClass, Object... params) throws ReflectiveOperationUncheckedException {
+		return getFactory(recordClass).create(params);
+	}
+	
+	/** return component values in declaration order */
+	public static Object[] getValues(Object record) throws ReflectiveOperationUncheckedException {
+		final RecordComponentAccessor[] accessors = getAccessors(record.getClass());
+		final Object[] values = new Object[accessors.length];
+		for(int i = 0; i < accessors.length; i++) {
+			values[i] = accessors[i].get(record);
+		}
+		return values;
+	}
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright (c) 2010-2018 fork3
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software
+ * is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES 
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE 
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR 
+ * IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package f3.commons.reflection;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import f3.commons.reflection.exception.ClassNotFoundUncheckedException;
+import f3.commons.reflection.exception.NoSuchFieldUncheckedException;
+import f3.commons.reflection.exception.ReflectiveOperationUncheckedException;
+
+/**
+ * Owner of reflection caches, bound to class loader. 
+ * Static utilities use default context, bound to class loader of this library.
+ * Per-class caches are stored by {@link ClassValue} on class itself and refer only to types visible from class loader 
+ * of that class, so cache of shared class does not hold class loaders of other types (see {@link ClassCache}). 
+ * {@link #invalidate()} drops all caches of context at once, without affecting other contexts.
+ * @author n3k0nation
+ *
+ */
+public class ReflectionContext {
+	private static final ReflectionContext defaultContext = new ReflectionContext(ReflectionContext.class.getClassLoader());
+	
+	private final ClassLoader classLoader;
+	private final AnnotationIndex annotationIndex = new AnnotationIndex(this);
+	private volatile Caches caches = new Caches();
+	
+	public ReflectionContext(ClassLoader classLoader) {
+		this.classLoader = classLoader;
+	}
+	
+	public static ReflectionContext getDefault() {
+		return defaultContext;
+	}
+	
+	public ClassLoader getClassLoader() {
+		return classLoader;
+	}
+	
+	/** return annotation types registry of context. ids are kept on {@link #invalidate()} */
+	public AnnotationIndex getAnnotationIndex() {
+		return annotationIndex;
+	}
+	
+	/** drop all caches of context */
+	public void invalidate() {
+		caches = new Caches();
+	}
+	
+	/** cached Class.forName by context class loader with runtime exception. class is initialized */
+	public Class<?> getClass(String path) throws ClassNotFoundUncheckedException {
+		return getClass(path, true);
+	}
+	
+	/** cached Class.forName by context class loader with runtime exception. 
+	 * class loaded without initialization is cached apart. later initializing call initializes it 
+	 * without resolving name again and moves it to initialized classes */
+	public Class<?> getClass(String path, boolean initialize) throws ClassNotFoundUncheckedException {
+		final Caches caches = this.caches;
+		Class<?> clazz = caches.classes.get(path);
+		if(clazz != null) {
+			return clazz;
+		}
+		
+		clazz = caches.loadedClasses.get(path);
+		if(clazz == null) {
+			clazz = ClassUtils.getClass(path, initialize, classLoader);
+			(initialize ? caches.classes : caches.loadedClasses).putIfAbsent(path, clazz);
+		} else if(initialize) {
+			Handles.ensureInitialized(clazz);
+			caches.classes.putIfAbsent(path, clazz);
+		}
+		return clazz;
+	}
+	
+	/** return accessors of record components in declaration order */
+	public RecordComponentAccessor[] getRecordAccessors(Class<?> recordClass) throws ReflectiveOperationUncheckedException {
+		return getRecord(recordClass).accessors.clone();
+	}
+	
+	public RecordComponentAccessor getRecordAccessor(Class<?> recordClass, String name) throws NoSuchFieldUncheckedException {
+		final RecordComponentAccessor[] accessors = getRecord(recordClass).accessors;
+		for(int i = 0; i < accessors.length; i++) {
+			final RecordComponentAccessor accessor = accessors[i];
+			if(accessor.getName().equals(name)) {
+				return accessor;
+			}
+		}
+		
+		throw new NoSuchFieldUncheckedException("Record " + recordClass.getName() + " doesnt have component " + name);
+	}
+	
+	@SuppressWarnings("unchecked")
+	public <T> RecordFactory<T> getRecordFactory(Class<T> recordClass) throws ReflectiveOperationUncheckedException {
+		return (RecordFactory<T>) getRecord(recordClass).factory;
+	}
+	
+	/** return cached non-abstract classes of sealed hierarchy, resolved by permits lists */
+	public List<Class<?>> getPermittedChilds(Class<?> parent) throws ClassNotFoundUncheckedException {
+		return getClassCache(parent).getPermittedChilds();
+	}
+	
+	/** return cached layout of class fields annotated by specified annotation */
+	public <T> StructLayout<T> getStructLayout(Class<T> clazz, Class<? extends Annotation> annotationClass) {
+		final ClassCache cache = getOwnerCache(clazz, annotationClass);
+		if(cache == null) {
+			return new StructLayout<>(clazz, annotationClass);
+		}
+		return cache.getLayout(clazz, annotationClass);
+	}
+	
+	/** return type with type variables substituted by bindings of class hierarchy */
+	public Type resolveType(Type type, Class<?> clazz) {
+		return TypeResolver.resolve(type, getClassCache(clazz).getTypeBindings());
+	}
+	
+	/** return generic type of field, resolved against specified class of field declaring class hierarchy */
+	public Type getResolvedType(Class<?> clazz, Field field) {
+		checkMember(clazz, field);
+		return getClassCache(clazz).getFieldType(field);
+	}
+	
+	/** return generic return type of method, resolved against specified class of method declaring class hierarchy */
+	public Type getResolvedReturnType(Class<?> clazz, Method method) {
+		checkMember(clazz, method);
+		return getClassCache(clazz).getReturnType(method);
+	}
+	
+	/** return generic parameter types of method, resolved against specified class of method declaring class hierarchy */
+	public Type[] getResolvedParameterTypes(Class<?> clazz, Method method) {
+		checkMember(clazz, method);
+		return getClassCache(clazz).getParameterTypes(method).clone();
+	}
+	
+	/** return cached invoker of public method, resolved by name and argument types with boxing and varargs. 
+	 * null argument type matches any reference parameter. failed resolution is cached too */
+	public MethodInvoker getMethodInvoker(Class<?> clazz, String name, Class<?>... argTypes) throws ReflectiveOperationUncheckedException {
+		return getMethodInvoker(clazz, name, argTypes, false);
+	}
+	
+	/** return cached invoker of public static method, resolved among static methods only */
+	public MethodInvoker getStaticMethodInvoker(Class<?> clazz, String name, Class<?>... argTypes) throws ReflectiveOperationUncheckedException {
+		return getMethodInvoker(clazz, name, argTypes, true);
+	}
+	
+	private MethodInvoker getMethodInvoker(Class<?> clazz, String name, Class<?>[] argTypes, boolean statics) {
+		final ClassCache cache = getOwnerCache(clazz, argTypes);
+		if(cache == null) {
+			return MethodResolver.resolve(clazz, name, argTypes, statics);
+		}
+		return cache.getInvoker(clazz, name, argTypes, statics);
+	}
+	
+	/** return cache of class, which class loader sees all specified types. data keyed by types is stored there, 
+	 * so shared class cache does not hold class loaders of types. return null if types are from unrelated class loaders */
+	ClassCache getOwnerCache(Class<?> clazz, Class<?>... types) {
+		Class<?> owner = clazz;
+		for(int i = 0; i < types.length; i++) {
+			final Class<?> type = types[i];
+			if(type == null || isVisible(type, owner.getClassLoader())) {
+				continue;
+			} else if(isVisible(owner, type.getClassLoader())) {
+				owner = type;
+			} else {
+				return null;
+			}
+		}
+		return getClassCache(owner);
+	}
+	
+	/** return true if class loader of type is specified class loader or its parent */
+	static boolean isVisible(Class<?> type, ClassLoader from) {
+		final ClassLoader loader = type.getClassLoader();
+		if(loader == null) {
+			return true;
+		}
+		
+		for(ClassLoader parent = from; parent != null; parent = parent.getParent()) {
+			if(parent == loader) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	ClassCache getClassCache(Class<?> clazz) {
+		return caches.classCaches.get(clazz);
+	}
+	
+	private RecordInfo<?> getRecord(Class<?> recordClass) throws ReflectiveOperationUncheckedException {
+		if(!recordClass.isRecord()) {
+			throw new ReflectiveOperationUncheckedException("Class " + recordClass.getName() + " is not record");
+		}
+		
+		return getClassCache(recordClass).getRecord();
+	}
+	
+	private static void checkMember(Class<?> clazz, Member member) {
+		if(!member.getDeclaringClass().isAssignableFrom(clazz)) {
+			throw new IllegalArgumentException("Class " + clazz.getName() + " is not subclass of " + member.getDeclaringClass().getName());
+		}
+	}
+	
+	private static final class Caches {
+		/** initialized classes */
+		private final ConcurrentHashMap<String, Class<?>> classes = new ConcurrentHashMap<>();
+		/** classes loaded without initialization */
+		private final ConcurrentHashMap<String, Class<?>> loadedClasses = new ConcurrentHashMap<>();
+		private final ClassValue<ClassCache> classCaches = new ClassValue<ClassCache>() {
+			@Override
+			protected ClassCache computeValue(Class<?> type) {
+				return new ClassCache(type);
+			}
+		};
+	}
+}
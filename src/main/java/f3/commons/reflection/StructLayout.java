@@ -0,0 +1,436 @@
+/*
+ * Copyright (c) 2010-2018 fork3
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software
+ * is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES 
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE 
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR 
+ * IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package f3.commons.reflection;
+
+import java.lang.annotation.Annotation;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import f3.commons.reflection.exception.NoSuchFieldUncheckedException;
+import f3.commons.reflection.exception.ReflectiveOperationUncheckedException;
+
+/**
+ * Fixed binary layout of class, computed once from annotated primitive fields.
+ * Fields packed without padding. If fields are annotated by {@link Order}, they are placed by order values.
+ * Otherwise they are ordered by size descending, then parent class fields first, then by name, 
+ * so every field is aligned by own size when record starts at aligned offset. 
+ * Declaration order is never used, because order of {@link Class#getDeclaredFields()} is not specified.
+ * Records are not supported, because fields are written on read.
+ * Read and write use absolute buffer operations, values are not boxed. Byte order is taken from buffer.
+ * @author n3k0nation
+ *
+ */
+public final class StructLayout<T> {
+	/** Explicit position of field in layout. Either all or none of layout fields should be annotated. */
+	@Retention(RetentionPolicy.RUNTIME)
+	@Target(ElementType.FIELD)
+	public @interface Order {
+		int value();
+	}
+	
+	private final Class<T> clazz;
+	private final FieldCodec[] codecs;
+	private final List<Field> fields;
+	private final int size;
+	/** ()Object, null if class doesnt have no-args constructor */
+	private final MethodHandle constructor;
+	
+	StructLayout(Class<T> clazz, Class<? extends Annotation> annotationClass) throws ReflectiveOperationUncheckedException {
+		this.clazz = clazz;
+		if(clazz.isRecord()) {
+			throw new ReflectiveOperationUncheckedException("Record " + clazz.getName() + " is not supported, fields of layout are written on read");
+		}
+		
+		final List<Field> annotated = FieldUtils.getAnnotatedField(clazz, annotationClass);
+		final List<Field> list = new ArrayList<>(annotated.size());
+		int ordered = 0;
+		for(int i = 0; i < annotated.size(); i++) {
+			final Field field = annotated.get(i);
+			if(Modifier.isStatic(field.getModifiers())) {
+				continue;
+			}
+			
+			if(!field.getType().isPrimitive()) {
+				throw new RuntimeException("Field " + clazz.getName() + "." + field.getName() + " is not primitive");
+			}
+			
+			if(field.isAnnotationPresent(Order.class)) {
+				ordered++;
+			}
+			list.add(field);
+		}
+		
+		if(ordered == 0) {
+			list.sort(Comparator.<Field>comparingInt(f -> -Primitive.getSize(f.getType()))
+					.thenComparingInt(f -> ClassUtils.getAllParents(f.getDeclaringClass()).size())
+					.thenComparing(Field::getName));
+		} else if(ordered == list.size()) {
+			list.sort(Comparator.comparingInt(f -> f.getAnnotation(Order.class).value()));
+			for(int i = 1; i < list.size(); i++) {
+				if(list.get(i - 1).getAnnotation(Order.class).value() == list.get(i).getAnnotation(Order.class).value()) {
+					throw new RuntimeException("Fields " + list.get(i - 1).getName() + " and " + list.get(i).getName() 
+							+ " of " + clazz.getName() + " have same order");
+				}
+			}
+		} else {
+			throw new RuntimeException("Not all layout fields of " + clazz.getName() + " have order");
+		}
+		
+		codecs = new FieldCodec[list.size()];
+		int offset = 0;
+		for(int i = 0; i < codecs.length; i++) {
+			final Field field = list.get(i);
+			codecs[i] = FieldCodec.create(field, offset);
+			offset += Primitive.getSize(field.getType());
+		}
+		
+		fields = Collections.unmodifiableList(list);
+		size = offset;
+		constructor = findConstructor(clazz);
+	}
+	
+	/** return cached layout of class fields annotated by specified annotation from default context */
+	public static <T> StructLayout<T> of(Class<T> clazz, Class<? extends Annotation> annotationClass) {
+		return ReflectionContext.getDefault().getStructLayout(clazz, annotationClass);
+	}
+	
+	public Class<T> getLayoutClass() {
+		return clazz;
+	}
+	
+	/** return size of record in bytes */
+	public int size() {
+		return size;
+	}
+	
+	/** return fields in layout order */
+	public List<Field> getFields() {
+		return fields;
+	}
+	
+	/** return offset of field in record */
+	public int getOffset(String fieldName) throws NoSuchFieldUncheckedException {
+		for(int i = 0; i < codecs.length; i++) {
+			final FieldCodec codec = codecs[i];
+			if(codec.field.getName().equals(fieldName)) {
+				return codec.offset;
+			}
+		}
+		
+		throw new NoSuchFieldUncheckedException("Layout of " + clazz.getName() + " doesnt have field " + fieldName);
+	}
+	
+	/** write object to buffer starting at specified index. buffer position is not changed */
+	public void write(T object, ByteBuffer buffer, int index) {
+		checkBounds(buffer, index);
+		for(int i = 0; i < codecs.length; i++) {
+			codecs[i].write(object, buffer, index);
+		}
+	}
+	
+	/** read fields of object from buffer starting at specified index. buffer position is not changed */
+	public T read(ByteBuffer buffer, int index, T object) {
+		checkBounds(buffer, index);
+		for(int i = 0; i < codecs.length; i++) {
+			codecs[i].read(object, buffer, index);
+		}
+		return object;
+	}
+	
+	/** create object by no-args constructor and read it from buffer starting at specified index */
+	public T read(ByteBuffer buffer, int index) throws ReflectiveOperationUncheckedException {
+		if(constructor == null) {
+			throw new ReflectiveOperationUncheckedException("Class " + clazz.getName() + " doesnt have no-args constructor");
+		}
+		
+		final Object object;
+		try {
+			object = constructor.invokeExact();
+		} catch(Throwable e) {
+			throw Handles.rethrow(e);
+		}
+		
+		return read(buffer, index, clazz.cast(object));
+	}
+	
+	private void checkBounds(ByteBuffer buffer, int index) {
+		if(index < 0 || index > buffer.limit() - size) {
+			throw new IndexOutOfBoundsException("Record [" + index + ", " + (index + size) + ") out of buffer limit " + buffer.limit());
+		}
+	}
+	
+	private static MethodHandle findConstructor(Class<?> clazz) {
+		if(ClassUtils.isAbstractClass(clazz)) {
+			return null;
+		}
+		
+		final Constructor<?> constructor;
+		try {
+			constructor = clazz.getDeclaredConstructor();
+		} catch(NoSuchMethodException e) {
+			return null;
+		}
+		
+		return Handles.unreflectConstructor(constructor).asType(MethodType.methodType(Object.class));
+	}
+	
+	private static abstract class FieldCodec {
+		protected final Field field;
+		protected final int offset;
+		/** (Object)type */
+		protected final MethodHandle getter;
+		/** (Object,type)void */
+		protected final MethodHandle setter;
+		
+		protected FieldCodec(Field field, int offset) {
+			this.field = field;
+			this.offset = offset;
+			
+			final Class<?> type = field.getType();
+			getter = Handles.unreflectGetter(field).asType(MethodType.methodType(type, Object.class));
+			setter = Handles.unreflectSetter(field).asType(MethodType.methodType(void.class, Object.class, type));
+		}
+		
+		abstract void write(Object object, ByteBuffer buffer, int index);
+		
+		abstract void read(Object object, ByteBuffer buffer, int index);
+		
+		static FieldCodec create(Field field, int offset) {
+			final Class<?> type = field.getType();
+			if(type == byte.class) {
+				return new ByteCodec(field, offset);
+			} else if(type == boolean.class) {
+				return new BooleanCodec(field, offset);
+			} else if(type == short.class) {
+				return new ShortCodec(field, offset);
+			} else if(type == char.class) {
+				return new CharCodec(field, offset);
+			} else if(type == int.class) {
+				return new IntCodec(field, offset);
+			} else if(type == long.class) {
+				return new LongCodec(field, offset);
+			} else if(type == float.class) {
+				return new FloatCodec(field, offset);
+			} else {
+				return new DoubleCodec(field, offset);
+			}
+		}
+	}
+	
+	private static final class ByteCodec extends FieldCodec {
+		ByteCodec(Field field, int offset) {
+			super(field, offset);
+		}
+		
+		@Override
+		void write(Object object, ByteBuffer buffer, int index) {
+			try {
+				buffer.put(index + offset, (byte) getter.invokeExact(object));
+			} catch(Throwable e) {
+				throw Handles.rethrow(e);
+			}
+		}
+		
+		@Override
+		void read(Object object, ByteBuffer buffer, int index) {
+			try {
+				setter.invokeExact(object, buffer.get(index + offset));
+			} catch(Throwable e) {
+				throw Handles.rethrow(e);
+			}
+		}
+	}
+	
+	private static final class BooleanCodec extends FieldCodec {
+		BooleanCodec(Field field, int offset) {
+			super(field, offset);
+		}
+		
+		@Override
+		void write(Object object, ByteBuffer buffer, int index) {
+			try {
+				buffer.put(index + offset, (boolean) getter.invokeExact(object) ? (byte) 1 : (byte) 0);
+			} catch(Throwable e) {
+				throw Handles.rethrow(e);
+			}
+		}
+		
+		@Override
+		void read(Object object, ByteBuffer buffer, int index) {
+			try {
+				setter.invokeExact(object, buffer.get(index + offset) != 0);
+			} catch(Throwable e) {
+				throw Handles.rethrow(e);
+			}
+		}
+	}
+	
+	private static final class ShortCodec extends FieldCodec {
+		ShortCodec(Field field, int offset) {
+			super(field, offset);
+		}
+		
+		@Override
+		void write(Object object, ByteBuffer buffer, int index) {
+			try {
+				buffer.putShort(index + offset, (short) getter.invokeExact(object));
+			} catch(Throwable e) {
+				throw Handles.rethrow(e);
+			}
+		}
+		
+		@Override
+		void read(Object object, ByteBuffer buffer, int index) {
+			try {
+				setter.invokeExact(object, buffer.getShort(index + offset));
+			} catch(Throwable e) {
+				throw Handles.rethrow(e);
+			}
+		}
+	}
+	
+	private static final class CharCodec extends FieldCodec {
+		CharCodec(Field field, int offset) {
+			super(field, offset);
+		}
+		
+		@Override
+		void write(Object object, ByteBuffer buffer, int index) {
+			try {
+				buffer.putChar(index + offset, (char) getter.invokeExact(object));
+			} catch(Throwable e) {
+				throw Handles.rethrow(e);
+			}
+		}
+		
+		@Override
+		void read(Object object, ByteBuffer buffer, int index) {
+			try {
+				setter.invokeExact(object, buffer.getChar(index + offset));
+			} catch(Throwable e) {
+				throw Handles.rethrow(e);
+			}
+		}
+	}
+	
+	private static final class IntCodec extends FieldCodec {
+		IntCodec(Field field, int offset) {
+			super(field, offset);
+		}
+		
+		@Override
+		void write(Object object, ByteBuffer buffer, int index) {
+			try {
+				buffer.putInt(index + offset, (int) getter.invokeExact(object));
+			} catch(Throwable e) {
+				throw Handles.rethrow(e);
+			}
+		}
+		
+		@Override
+		void read(Object object, ByteBuffer buffer, int index) {
+			try {
+				setter.invokeExact(object, buffer.getInt(index + offset));
+			} catch(Throwable e) {
+				throw Handles.rethrow(e);
+			}
+		}
+	}
+	
+	private static final class LongCodec extends FieldCodec {
+		LongCodec(Field field, int offset) {
+			super(field, offset);
+		}
+		
+		@Override
+		void write(Object object, ByteBuffer buffer, int index) {
+			try {
+				buffer.putLong(index + offset, (long) getter.invokeExact(object));
+			} catch(Throwable e) {
+				throw Handles.rethrow(e);
+			}
+		}
+		
+		@Override
+		void read(Object object, ByteBuffer buffer, int index) {
+			try {
+				setter.invokeExact(object, buffer.getLong(index + offset));
+			} catch(Throwable e) {
+				throw Handles.rethrow(e);
+			}
+		}
+	}
+	
+	private static final class FloatCodec extends FieldCodec {
+		FloatCodec(Field field, int offset) {
+			super(field, offset);
+		}
+		
+		@Override
+		void write(Object object, ByteBuffer buffer, int index) {
+			try {
+				buffer.putFloat(index + offset, (float) getter.invokeExact(object));
+			} catch(Throwable e) {
+				throw Handles.rethrow(e);
+			}
+		}
+		
+		@Override
+		void read(Object object, ByteBuffer buffer, int index) {
+			try {
+				setter.invokeExact(object, buffer.getFloat(index + offset));
+			} catch(Throwable e) {
+				throw Handles.rethrow(e);
+			}
+		}
+	}
+	
+	private static final class DoubleCodec extends FieldCodec {
+		DoubleCodec(Field field, int offset) {
+			super(field, offset);
+		}
+		
+		@Override
+		void write(Object object, ByteBuffer buffer, int index) {
+			try {
+				buffer.putDouble(index + offset, (double) getter.invokeExact(object));
+			} catch(Throwable e) {
+				throw Handles.rethrow(e);
+			}
+		}
+		
+		@Override
+		void read(Object object, ByteBuffer buffer, int index) {
+			try {
+				setter.invokeExact(object, buffer.getDouble(index + offset));
+			} catch(Throwable e) {
+				throw Handles.rethrow(e);
+			}
+		}
+	}
+}
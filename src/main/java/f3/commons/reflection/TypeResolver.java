@@ -0,0 +1,298 @@
+/*
+ * Copyright (c) 2010-2018 fork3
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software
+ * is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES 
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE 
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR 
+ * IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package f3.commons.reflection;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Resolution of generic types against type variables bound in class hierarchy.
+ * Resolved types implement equals and hashCode compatible with JDK implementations.
+ * @author n3k0nation
+ *
+ */
+final class TypeResolver {
+	private TypeResolver() {
+		throw new RuntimeException();
+	}
+	
+	/** return type variables bound by class hierarchy, including owners of parameterized supertypes */
+	static Map<TypeVariable<?>, Type> getBindings(Class<?> clazz) {
+		final Map<TypeVariable<?>, Type> bindings = new HashMap<>();
+		collectBindings(clazz, bindings);
+		return bindings;
+	}
+	
+	private static void collectBindings(Class<?> clazz, Map<TypeVariable<?>, Type> bindings) {
+		final Type superClass = clazz.getGenericSuperclass();
+		if(superClass != null) {
+			collectBindings(superClass, bindings);
+		}
+		
+		final Type[] interfaces = clazz.getGenericInterfaces();
+		for(int i = 0; i < interfaces.length; i++) {
+			collectBindings(interfaces[i], bindings);
+		}
+	}
+	
+	private static void collectBindings(Type type, Map<TypeVariable<?>, Type> bindings) {
+		if(type instanceof Class) {
+			collectBindings((Class<?>) type, bindings);
+			return;
+		} else if(!(type instanceof ParameterizedType)) {
+			return;
+		}
+		
+		final ParameterizedType parameterized = (ParameterizedType) type;
+		final Class<?> raw = (Class<?>) parameterized.getRawType();
+		final TypeVariable<?>[] variables = raw.getTypeParameters();
+		final Type[] arguments = parameterized.getActualTypeArguments();
+		for(int i = 0; i < variables.length; i++) {
+			bindings.putIfAbsent(variables[i], resolve(arguments[i], bindings));
+		}
+		
+		final Type owner = parameterized.getOwnerType();
+		if(owner instanceof ParameterizedType) {
+			collectBindings(owner, bindings);
+		}
+		
+		collectBindings(raw, bindings);
+	}
+	
+	/** return type with substituted bound type variables. unbound type variables are kept */
+	static Type resolve(Type type, Map<TypeVariable<?>, Type> bindings) {
+		if(type instanceof Class) {
+			return type;
+		} else if(type instanceof TypeVariable) {
+			final Type bound = bindings.get(type);
+			return bound == null ? type : bound;
+		} else if(type instanceof ParameterizedType) {
+			final ParameterizedType parameterized = (ParameterizedType) type;
+			final Type owner = parameterized.getOwnerType();
+			final Type resolvedOwner = owner == null ? null : resolve(owner, bindings);
+			final Type[] arguments = parameterized.getActualTypeArguments();
+			final Type[] resolved = resolve(arguments, bindings);
+			if(resolvedOwner == owner && resolved == arguments) {
+				return type;
+			}
+			return new ParameterizedTypeImpl((Class<?>) parameterized.getRawType(), resolved, resolvedOwner);
+		} else if(type instanceof GenericArrayType) {
+			final Type component = ((GenericArrayType) type).getGenericComponentType();
+			final Type resolved = resolve(component, bindings);
+			if(resolved == component) {
+				return type;
+			} else if(resolved instanceof Class) {
+				return Array.newInstance((Class<?>) resolved, 0).getClass();
+			}
+			return new GenericArrayTypeImpl(resolved);
+		} else if(type instanceof WildcardType) {
+			final WildcardType wildcard = (WildcardType) type;
+			final Type[] upper = wildcard.getUpperBounds();
+			final Type[] lower = wildcard.getLowerBounds();
+			final Type[] resolvedUpper = resolve(upper, bindings);
+			final Type[] resolvedLower = resolve(lower, bindings);
+			if(resolvedUpper == upper && resolvedLower == lower) {
+				return type;
+			}
+			return new WildcardTypeImpl(resolvedUpper, resolvedLower);
+		}
+		
+		return type;
+	}
+	
+	/** return resolved types. if nothing was substituted return same array */
+	static Type[] resolve(Type[] types, Map<TypeVariable<?>, Type> bindings) {
+		Type[] resolved = types;
+		for(int i = 0; i < types.length; i++) {
+			final Type type = resolve(types[i], bindings);
+			if(type != types[i]) {
+				if(resolved == types) {
+					resolved = types.clone();
+				}
+				resolved[i] = type;
+			}
+		}
+		return resolved;
+	}
+	
+	/** return raw class of type. type variables and wildcards are erased to first upper bound */
+	static Class<?> getRawType(Type type) {
+		if(type instanceof Class) {
+			return (Class<?>) type;
+		} else if(type instanceof ParameterizedType) {
+			return (Class<?>) ((ParameterizedType) type).getRawType();
+		} else if(type instanceof GenericArrayType) {
+			final Class<?> component = getRawType(((GenericArrayType) type).getGenericComponentType());
+			return Array.newInstance(component, 0).getClass();
+		} else if(type instanceof TypeVariable) {
+			return getRawType(((TypeVariable<?>) type).getBounds()[0]);
+		} else if(type instanceof WildcardType) {
+			return getRawType(((WildcardType) type).getUpperBounds()[0]);
+		}
+		
+		throw new IllegalArgumentException("Unknown type " + type);
+	}
+	
+	private static String toString(Type type) {
+		return type instanceof Class ? ((Class<?>) type).getTypeName() : type.toString();
+	}
+	
+	private static final class ParameterizedTypeImpl implements ParameterizedType {
+		private final Class<?> rawType;
+		private final Type[] arguments;
+		private final Type ownerType;
+		
+		private ParameterizedTypeImpl(Class<?> rawType, Type[] arguments, Type ownerType) {
+			this.rawType = rawType;
+			this.arguments = arguments;
+			this.ownerType = ownerType;
+		}
+		
+		@Override
+		public Type[] getActualTypeArguments() {
+			return arguments.clone();
+		}
+		
+		@Override
+		public Type getRawType() {
+			return rawType;
+		}
+		
+		@Override
+		public Type getOwnerType() {
+			return ownerType;
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			if(!(obj instanceof ParameterizedType)) {
+				return false;
+			}
+			
+			final ParameterizedType type = (ParameterizedType) obj;
+			return rawType.equals(type.getRawType()) && Objects.equals(ownerType, type.getOwnerType()) 
+					&& Arrays.equals(arguments, type.getActualTypeArguments());
+		}
+		
+		@Override
+		public int hashCode() {
+			return Arrays.hashCode(arguments) ^ Objects.hashCode(ownerType) ^ rawType.hashCode();
+		}
+		
+		@Override
+		public String toString() {
+			final StringBuilder sb = new StringBuilder();
+			if(ownerType != null) {
+				sb.append(TypeResolver.toString(ownerType)).append('$').append(rawType.getSimpleName());
+			} else {
+				sb.append(rawType.getName());
+			}
+			
+			if(arguments.length > 0) {
+				sb.append('<');
+				for(int i = 0; i < arguments.length; i++) {
+					if(i != 0) {
+						sb.append(", ");
+					}
+					sb.append(TypeResolver.toString(arguments[i]));
+				}
+				sb.append('>');
+			}
+			return sb.toString();
+		}
+	}
+	
+	private static final class GenericArrayTypeImpl implements GenericArrayType {
+		private final Type componentType;
+		
+		private GenericArrayTypeImpl(Type componentType) {
+			this.componentType = componentType;
+		}
+		
+		@Override
+		public Type getGenericComponentType() {
+			return componentType;
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof GenericArrayType && componentType.equals(((GenericArrayType) obj).getGenericComponentType());
+		}
+		
+		@Override
+		public int hashCode() {
+			return componentType.hashCode();
+		}
+		
+		@Override
+		public String toString() {
+			return TypeResolver.toString(componentType) + "[]";
+		}
+	}
+	
+	private static final class WildcardTypeImpl implements WildcardType {
+		private final Type[] upperBounds;
+		private final Type[] lowerBounds;
+		
+		private WildcardTypeImpl(Type[] upperBounds, Type[] lowerBounds) {
+			this.upperBounds = upperBounds;
+			this.lowerBounds = lowerBounds;
+		}
+		
+		@Override
+		public Type[] getUpperBounds() {
+			return upperBounds.clone();
+		}
+		
+		@Override
+		public Type[] getLowerBounds() {
+			return lowerBounds.clone();
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			if(!(obj instanceof WildcardType)) {
+				return false;
+			}
+			
+			final WildcardType type = (WildcardType) obj;
+			return Arrays.equals(upperBounds, type.getUpperBounds()) && Arrays.equals(lowerBounds, type.getLowerBounds());
+		}
+		
+		@Override
+		public int hashCode() {
+			return Arrays.hashCode(upperBounds) ^ Arrays.hashCode(lowerBounds);
+		}
+		
+		@Override
+		public String toString() {
+			if(lowerBounds.length > 0) {
+				return "? super " + TypeResolver.toString(lowerBounds[0]);
+			} else if(upperBounds.length == 0 || upperBounds[0] == Object.class) {
+				return "?";
+			}
+			return "? extends " + TypeResolver.toString(upperBounds[0]);
+		}
+	}
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2010-2018 fork3
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software
+ * is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES 
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE 
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR 
+ * IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package f3.commons.reflection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * @author n3k0nation
+ *
+ */
+public class AnnotationIndexTest {
+	@Retention(RetentionPolicy.RUNTIME)
+	@interface A {}
+	
+	@Retention(RetentionPolicy.RUNTIME)
+	@interface B {}
+	
+	static class Annotated {
+		@A int a;
+		@B int b;
+		int none;
+	}
+	
+	@Test
+	public void testMask() throws Exception {
+		final AnnotationIndex index = new ReflectionContext(getClass().getClassLoader()).getAnnotationIndex();
+		final AnnotationMask mask = index.getTypesMask(B.class);
+		final Field b = Annotated.class.getDeclaredField("b");
+		assertTrue(index.isAnyAnnotationPresent(b, mask));
+		assertFalse(index.isAnyAnnotationPresent(Annotated.class.getDeclaredField("a"), mask));
+		assertTrue(index.getMask(b).containsAll(mask));
+		
+		final List<Field> fields = new ArrayList<>();
+		index.getAnnotatedFields(Annotated.class, index.getTypesMask(A.class).or(mask), fields);
+		assertEquals(2, fields.size());
+	}
+	
+	@Test
+	public void testForeignMask() throws Exception {
+		AnnotationUtils.getTypesMask(A.class, B.class);
+		final AnnotationMask foreign = new ReflectionContext(getClass().getClassLoader()).getAnnotationIndex().getTypesMask(B.class);
+		final Field a = Annotated.class.getDeclaredField("a");
+		
+		assertIllegal(() -> FieldUtils.getAnnotatedField(Annotated.class, foreign));
+		assertIllegal(() -> MethodUtils.getAnnotatedMethods(Annotated.class, foreign));
+		assertIllegal(() -> AnnotationUtils.isAnyAnnotationPresent(a, foreign));
+		assertIllegal(() -> AnnotationUtils.getTypesMask(A.class).intersects(foreign));
+		assertFalse(AnnotationUtils.getTypesMask(B.class).equals(foreign));
+		
+		// empty mask is compatible with any index
+		assertEquals(0, FieldUtils.getAnnotatedField(Annotated.class, AnnotationMask.EMPTY).size());
+	}
+	
+	private static void assertIllegal(Runnable action) {
+		try {
+			action.run();
+		} catch(IllegalArgumentException e) {
+			return;
+		}
+		throw new AssertionError("Foreign mask is accepted");
+	}
+}
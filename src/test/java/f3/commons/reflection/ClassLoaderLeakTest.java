@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2010-2018 fork3
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software
+ * is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES 
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE 
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR 
+ * IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package f3.commons.reflection;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.annotation.Annotation;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Checks caches do not hold class loaders of tenant types, when they are used with shared classes.
+ * @author n3k0nation
+ *
+ */
+public class ClassLoaderLeakTest {
+	static class Shared {
+		int value;
+	}
+	
+	@Test
+	public void testStructLayoutOfSharedClass() throws Exception {
+		final WeakReference<ClassLoader> loader = useTenant(tenant -> {
+			final Class<? extends Annotation> column = tenant.loadClass(TenantClassLoader.TENANT_PACKAGE + "TenantColumn").asSubclass(Annotation.class);
+			StructLayout.of(Shared.class, column);
+		});
+		assertCollected(loader);
+	}
+	
+	@Test
+	public void testInvalidate() throws Exception {
+		final WeakReference<ClassLoader> loader = useTenant(tenant -> {
+			final ReflectionContext context = new ReflectionContext(tenant);
+			final Class<?> type = context.getClass(TenantClassLoader.TENANT_PACKAGE + "TenantType");
+			final Class<? extends Annotation> column = context.getClass(TenantClassLoader.TENANT_PACKAGE + "TenantColumn").asSubclass(Annotation.class);
+			context.getStructLayout(type, column);
+			context.getStructLayout(Shared.class, column);
+			context.invalidate();
+		});
+		assertCollected(loader);
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void testRegisterInDefaultContext() throws Exception {
+		final Class<?> column = new TenantClassLoader().loadClass(TenantClassLoader.TENANT_PACKAGE + "TenantColumn");
+		AnnotationUtils.getTypesMask(column.asSubclass(Annotation.class));
+	}
+	
+	@Test
+	public void testAnnotationIndexOfContext() throws Exception {
+		final WeakReference<ClassLoader> loader = useTenant(tenant -> {
+			final ReflectionContext context = new ReflectionContext(tenant);
+			final Class<?> type = context.getClass(TenantClassLoader.TENANT_PACKAGE + "TenantType");
+			final Class<? extends Annotation> column = context.getClass(TenantClassLoader.TENANT_PACKAGE + "TenantColumn").asSubclass(Annotation.class);
+			final AnnotationIndex index = context.getAnnotationIndex();
+			final AnnotationMask mask = index.getTypesMask(column);
+			assertTrue(index.getMask(type.getField("value")).intersects(mask));
+		});
+		assertCollected(loader);
+	}
+	
+	@Test
+	public void testInvokeWithTenantArgument() throws Exception {
+		final WeakReference<ClassLoader> loader = useTenant(tenant -> {
+			final Object value = tenant.loadClass(TenantClassLoader.TENANT_PACKAGE + "TenantType").getConstructor().newInstance();
+			final List<Object> list = new ArrayList<>();
+			MethodUtils.invoke(list, "add", value);
+			assertSame(value, list.get(0));
+		});
+		assertCollected(loader);
+	}
+	
+	@Test
+	public void testMethodInvokerOfContext() throws Exception {
+		final ReflectionContext shared = new ReflectionContext(ReflectionContext.class.getClassLoader());
+		final WeakReference<ClassLoader> loader = useTenant(tenant -> {
+			final ReflectionContext context = new ReflectionContext(tenant);
+			final Class<?> type = context.getClass(TenantClassLoader.TENANT_PACKAGE + "TenantType");
+			context.getMethodInvoker(ArrayList.class, "add", type);
+			shared.getMethodInvoker(ArrayList.class, "add", type);
+			shared.getMethodInvoker(type, "equals", Object.class);
+		});
+		assertCollected(loader);
+		shared.invalidate();
+	}
+	
+	@Test
+	public void testFailedLookupByTenantCaller() throws Exception {
+		final WeakReference<ClassLoader> loader = useTenant(tenant -> {
+			final Class<?> caller = tenant.loadClass(TenantClassLoader.TENANT_PACKAGE + "TenantCaller");
+			((Runnable) caller.getConstructor().newInstance()).run();
+		});
+		assertCollected(loader);
+	}
+	
+	/** run action with new tenant class loader and return weak reference to loader */
+	static WeakReference<ClassLoader> useTenant(TenantAction action) throws Exception {
+		final TenantClassLoader tenant = new TenantClassLoader();
+		final Class<?> type = tenant.loadClass(TenantClassLoader.TENANT_PACKAGE + "TenantType");
+		assertNotSame(type, Class.forName(TenantClassLoader.TENANT_PACKAGE + "TenantType"));
+		action.run(tenant);
+		return new WeakReference<>(tenant);
+	}
+	
+	static void assertCollected(WeakReference<?> reference) throws InterruptedException {
+		for(int i = 0; i < 50 && reference.get() != null; i++) {
+			System.gc();
+			Thread.sleep(20);
+		}
+		assertNull("Class loader is not collected", reference.get());
+	}
+	
+	interface TenantAction {
+		void run(ClassLoader tenant) throws Exception;
+	}
+}
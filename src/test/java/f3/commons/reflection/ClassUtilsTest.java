@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2010-2018 fork3
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software
+ * is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES 
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE 
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR 
+ * IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package f3.commons.reflection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import f3.commons.reflection.exception.ClassNotFoundUncheckedException;
+
+/**
+ * @author n3k0nation
+ *
+ */
+public class ClassUtilsTest {
+	sealed interface Shape permits Circle, Polygon {}
+	record Circle(double radius) implements Shape {}
+	sealed interface Polygon extends Shape permits Square {}
+	record Square(double side) implements Polygon {}
+	
+	sealed interface Open permits Closed, Extensible {}
+	record Closed() implements Open {}
+	static non-sealed abstract class Extensible implements Open {}
+	static class Hidden extends Extensible {}
+	
+	@Test
+	public void testPermittedChilds() {
+		final List<Class<?>> childs = ClassUtils.getPermittedChilds(Shape.class);
+		assertEquals(Arrays.asList(Circle.class, Square.class), childs);
+		assertSame(Square.class, ClassUtils.getChildOf(Polygon.class));
+	}
+	
+	@Test(expected = ClassNotFoundUncheckedException.class)
+	public void testChildsMoreThanOne() {
+		ClassUtils.getChildOf(Shape.class);
+	}
+	
+	@Test(expected = ClassNotFoundUncheckedException.class)
+	public void testOpenHierarchy() {
+		ClassUtils.getChildOf(Open.class);
+	}
+}
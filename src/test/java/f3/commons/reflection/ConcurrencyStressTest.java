@@ -0,0 +1,251 @@
+/*
+ * Copyright (c) 2010-2018 fork3
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software
+ * is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES 
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE 
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR 
+ * IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package f3.commons.reflection;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.annotation.Annotation;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+/**
+ * Runs utilities and context caches from many threads at once, with invalidation and class loader churn. 
+ * Races show up as wrong results or exceptions of workers, leaks as class loaders not collected after churn. 
+ * Throughput scaling is measured apart by {@link ScalabilityBenchmark}.
+ * @author n3k0nation
+ *
+ */
+public class ConcurrencyStressTest {
+	static final int THREADS = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+	static final int ITERATIONS = 2000;
+	
+	@Retention(RetentionPolicy.RUNTIME)
+	@interface Column {}
+	
+	@Retention(RetentionPolicy.RUNTIME)
+	@interface Key {}
+	
+	@Retention(RetentionPolicy.RUNTIME)
+	@interface Handler {}
+	
+	public static class Entity {
+		@Key @Column public int id;
+		@Column public long time;
+		@Column public short flags;
+		public String comment;
+		
+		public Entity() {
+		}
+		
+		public Entity(int id, String comment) {
+			this.id = id;
+			this.comment = comment;
+		}
+		
+		@Handler
+		public void onLoad() {
+		}
+		
+		@Handler
+		public void onSave() {
+		}
+		
+		public void other() {
+		}
+	}
+	
+	public static class Holder<T> {
+		public T value;
+	}
+	
+	public static class IntHolder extends Holder<Integer> {
+	}
+	
+	sealed interface Event permits Login, Logout {}
+	record Login(String name) implements Event {}
+	record Logout(String name) implements Event {}
+	
+	enum Mode {
+		READ, WRITE
+	}
+	
+	@Test
+	public void testCreateInstance() throws Exception {
+		// not cached by Integer.valueOf, so converted value written back to caller array is other instance
+		final Integer id = Integer.valueOf(100000);
+		final Object[] args = {id, "entity"};
+		runConcurrently(THREADS, ITERATIONS, i -> {
+			final Entity entity = (Entity) ClassUtils.createInstance(Entity.class, args);
+			assertEquals(100000, entity.id);
+			assertEquals("entity", entity.comment);
+			assertSame(id, args[0]);
+		});
+	}
+	
+	@Test
+	public void testTransformStringToType() throws Exception {
+		runConcurrently(THREADS, ITERATIONS, i -> {
+			assertEquals(i, ClassUtils.transformStringToType(Integer.toString(i), int.class));
+			assertEquals((long) i, ClassUtils.transformStringToType(Integer.toString(i), Long.class));
+			assertEquals(i % 2 == 0, ClassUtils.transformStringToType(Boolean.toString(i % 2 == 0), boolean.class));
+			assertArrayEquals(new int[] {i, 1, 2}, (int[]) ClassUtils.transformStringToType(i + ",1,2", int[].class));
+			assertSame(Mode.WRITE, ClassUtils.transformStringToType("write", Mode.class));
+		});
+	}
+	
+	@Test
+	public void testAnnotationScans() throws Exception {
+		final ReflectionContext context = new ReflectionContext(getClass().getClassLoader());
+		final AnnotationIndex index = context.getAnnotationIndex();
+		runConcurrently(THREADS, ITERATIONS, i -> {
+			assertEquals(3, FieldUtils.getAnnotatedField(Entity.class, Column.class).size());
+			assertEquals(2, MethodUtils.getAnnotatedMethods(Entity.class, Handler.class).size());
+			
+			// types are registered concurrently with scans, so masks are recomputed while read
+			final AnnotationMask columns = (i & 1) == 0 ? index.getTypesMask(Column.class) : index.getTypesMask(Key.class, Column.class);
+			final List<Field> fields = new ArrayList<>();
+			index.getAnnotatedFields(Entity.class, columns, fields);
+			assertEquals(3, fields.size());
+			
+			final List<Method> methods = new ArrayList<>();
+			index.getAnnotatedMethods(Entity.class, index.getTypesMask(Handler.class), methods);
+			assertEquals(2, methods.size());
+		});
+		assertEquals(3, index.size());
+	}
+	
+	@Test
+	public void testContextCaches() throws Exception {
+		final ReflectionContext context = new ReflectionContext(getClass().getClassLoader());
+		final Field value = Holder.class.getField("value");
+		final AtomicBoolean done = new AtomicBoolean();
+		final Thread invalidator = new Thread(() -> {
+			while(!done.get()) {
+				context.invalidate();
+				Thread.yield();
+			}
+		});
+		invalidator.start();
+		
+		try {
+			runConcurrently(THREADS, ITERATIONS, i -> {
+				final List<Object> list = new ArrayList<>();
+				context.getMethodInvoker(ArrayList.class, "add", Integer.class).invoke(list, i);
+				assertEquals(i, list.get(0));
+				
+				assertEquals(List.of(Login.class, Logout.class), context.getPermittedChilds(Event.class));
+				assertEquals("name", context.getRecordAccessor(Login.class, "name").getName());
+				assertEquals("user", context.getRecordFactory(Login.class).create("user").name());
+				assertSame(Integer.class, context.getResolvedType(IntHolder.class, value));
+				assertEquals(8 + 4 + 2, context.getStructLayout(Entity.class, Column.class).size());
+				assertSame(Entity.class, context.getClass(Entity.class.getName()));
+			});
+		} finally {
+			done.set(true);
+			invalidator.join();
+		}
+	}
+	
+	@Test
+	public void testClassLoaderChurn() throws Exception {
+		final Queue<WeakReference<ClassLoader>> loaders = new ConcurrentLinkedQueue<>();
+		runConcurrently(THREADS, ITERATIONS / 20, i -> {
+			final TenantClassLoader tenant = new TenantClassLoader();
+			final ReflectionContext context = new ReflectionContext(tenant);
+			final Class<?> type = context.getClass(TenantClassLoader.TENANT_PACKAGE + "TenantType");
+			final Class<? extends Annotation> column = context.getClass(TenantClassLoader.TENANT_PACKAGE + "TenantColumn").asSubclass(Annotation.class);
+			
+			final Object entity = ClassUtils.createInstance(type);
+			assertEquals(1, FieldUtils.getAnnotatedField(type, column).size());
+			AnnotationUtils.getMask(type);
+			// default context caches of shared classes used with tenant types
+			MethodUtils.invoke(new ArrayList<>(), "add", entity);
+			StructLayout.of(Entity.class, column);
+			
+			final AnnotationIndex index = context.getAnnotationIndex();
+			final AnnotationMask mask = index.getTypesMask(column);
+			assertTrue(index.getMask(type.getField("value")).intersects(mask));
+			assertEquals(4, context.getStructLayout(type, column).size());
+			assertEquals(Boolean.TRUE, context.getMethodInvoker(type, "equals", Object.class).invoke(entity, entity));
+			loaders.add(new WeakReference<>(tenant));
+		});
+		
+		for(WeakReference<ClassLoader> loader : loaders) {
+			assertCollected(loader);
+		}
+	}
+	
+	/** run task by specified count of threads started at once and return elapsed nanoseconds. 
+	 * exceptions and assertion errors of workers are rethrown */
+	static long runConcurrently(int threads, int iterations, Task task) throws Exception {
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			final CountDownLatch ready = new CountDownLatch(threads);
+			final CountDownLatch start = new CountDownLatch(1);
+			final List<Future<?>> futures = new ArrayList<>(threads);
+			for(int t = 0; t < threads; t++) {
+				futures.add(executor.submit(() -> {
+					ready.countDown();
+					start.await();
+					for(int i = 0; i < iterations; i++) {
+						task.run(i);
+					}
+					return null;
+				}));
+			}
+			
+			ready.await();
+			final long begin = System.nanoTime();
+			start.countDown();
+			for(int i = 0; i < futures.size(); i++) {
+				futures.get(i).get();
+			}
+			return System.nanoTime() - begin;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+	
+	private static void assertCollected(WeakReference<?> reference) throws InterruptedException {
+		for(int i = 0; i < 50 && reference.get() != null; i++) {
+			System.gc();
+			Thread.sleep(20);
+		}
+		assertNull("Class loader is not collected", reference.get());
+	}
+	
+	interface Task {
+		void run(int iteration) throws Exception;
+	}
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2010-2018 fork3
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software
+ * is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES 
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE 
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR 
+ * IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package f3.commons.reflection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import f3.commons.reflection.exception.ReflectiveOperationUncheckedException;
+
+/**
+ * @author n3k0nation
+ *
+ */
+public class MethodUtilsTest {
+	public static class Overloads {
+		public static String h(Object... args) {
+			return "Object...";
+		}
+		
+		public static String h(String... args) {
+			return "String...";
+		}
+		
+		public static String g(Object arg) {
+			return "Object";
+		}
+		
+		public static String g(Integer arg) {
+			return "Integer";
+		}
+		
+		public static String g(long arg) {
+			return "long";
+		}
+		
+		public static String s(Object arg) {
+			return "static";
+		}
+		
+		public String s(String arg) {
+			return "instance";
+		}
+		
+		public String inst() {
+			return "instance";
+		}
+	}
+	
+	@Test
+	public void testMostSpecificVarargs() {
+		assertEquals("String...", MethodUtils.invokeStatic(Overloads.class, "h"));
+		assertEquals("String...", MethodUtils.invokeStatic(Overloads.class, "h", "a", "b"));
+		assertEquals("Object...", MethodUtils.invokeStatic(Overloads.class, "h", "a", 1));
+	}
+	
+	@Test
+	public void testPhases() {
+		assertEquals("long", MethodUtils.getInvoker(Overloads.class, "g", int.class).invoke(null, 1));
+		assertEquals("Integer", MethodUtils.invokeStatic(Overloads.class, "g", 1));
+		assertEquals("Object", MethodUtils.invokeStatic(Overloads.class, "g", "a"));
+	}
+	
+	@Test
+	public void testStatic() {
+		assertEquals("static", MethodUtils.invokeStatic(Overloads.class, "s", "a"));
+		assertEquals("instance", MethodUtils.invoke(new Overloads(), "s", "a"));
+	}
+	
+	@Test(expected = ReflectiveOperationUncheckedException.class)
+	public void testInstanceMethodNotStatic() {
+		MethodUtils.invokeStatic(Overloads.class, "inst");
+	}
+	
+	@Test
+	public void testFailureCached() {
+		final ReflectiveOperationUncheckedException first = getFailure();
+		final ReflectiveOperationUncheckedException second = getFailure();
+		assertNotSame(first, second);
+		assertEquals(first.getMessage(), second.getMessage());
+		assertTrue(second.getCause() instanceof NoSuchMethodException);
+	}
+	
+	private static ReflectiveOperationUncheckedException getFailure() {
+		try {
+			MethodUtils.getInvoker(Overloads.class, "missing", String.class);
+		} catch(ReflectiveOperationUncheckedException e) {
+			return e;
+		}
+		fail();
+		return null;
+	}
+}
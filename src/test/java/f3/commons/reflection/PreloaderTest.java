@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2010-2018 fork3
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software
+ * is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES 
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE 
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR 
+ * IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package f3.commons.reflection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import f3.commons.reflection.exception.ClassNotFoundUncheckedException;
+
+/**
+ * @author n3k0nation
+ *
+ */
+public class PreloaderTest {
+	sealed interface Message permits Ping, Pong {}
+	record Ping() implements Message {}
+	record Pong() implements Message {}
+	
+	@Retention(RetentionPolicy.RUNTIME)
+	@interface Route {}
+	
+	static class Router {
+		@Route
+		public void handle() {
+		}
+	}
+	
+	static volatile boolean initialized;
+	
+	static class Initializer {
+		static {
+			initialized = true;
+		}
+	}
+	
+	@Test
+	public void testNotInitialize() throws Exception {
+		final ReflectionContext context = new ReflectionContext(getClass().getClassLoader());
+		final Preloader preloader = new Preloader(context).addPackage("f3.commons.reflection");
+		
+		final List<Class<?>> loaded = preloader.start().get();
+		assertTrue(loaded.contains(Initializer.class));
+		assertFalse(initialized);
+		
+		assertSame(Initializer.class, context.getClass(Initializer.class.getName()));
+		assertTrue(initialized);
+	}
+	
+	@Test
+	public void testAnnotationMasks() throws Exception {
+		final ReflectionContext context = new ReflectionContext(getClass().getClassLoader());
+		new Preloader(context).addClass(Router.class).addAnnotationType(Route.class).start().get();
+		
+		// masks are filled with registered type, so scan does not recompute them
+		final AnnotationIndex index = context.getAnnotationIndex();
+		final ClassCache cache = context.getClassCache(Router.class);
+		final Field field = ClassCache.class.getDeclaredField("annotationMasks");
+		field.setAccessible(true);
+		final Object masks = field.get(cache);
+		assertSame(masks, cache.getAnnotationMasks(index));
+		assertTrue(index.getMask(Router.class.getMethod("handle")).has(index.getId(Route.class)));
+	}
+	
+	@Test
+	public void testPreload() throws Exception {
+		final ReflectionContext context = new ReflectionContext(getClass().getClassLoader());
+		final Preloader preloader = new Preloader(context)
+				.addClass(Message.class)
+				.addClass(Ping.class)
+				.addClass("f3.commons.reflection.NoSuchClass");
+		
+		final List<Class<?>> loaded = preloader.start().get();
+		assertTrue(preloader.isDone());
+		assertEquals(2, loaded.size());
+		
+		final Map<String, Throwable> failed = preloader.getFailed();
+		assertEquals(1, failed.size());
+		assertTrue(failed.get("f3.commons.reflection.NoSuchClass") instanceof ClassNotFoundUncheckedException);
+		
+		assertSame(context.getPermittedChilds(Message.class), context.getPermittedChilds(Message.class));
+		assertSame(context.getRecordFactory(Ping.class), context.getRecordFactory(Ping.class));
+	}
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2010-2018 fork3
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software
+ * is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES 
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE 
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR 
+ * IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package f3.commons.reflection;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import f3.commons.reflection.exception.NoSuchFieldUncheckedException;
+import f3.commons.reflection.exception.ReflectiveOperationUncheckedException;
+
+/**
+ * @author n3k0nation
+ *
+ */
+public class RecordUtilsTest {
+	record Primitives(boolean z, byte b, char c, short s, int i, long l, float f, double d) {}
+	
+	record Tags(String name, String... tags) {}
+	
+	record Named(String name, List<String> aliases) {}
+	
+	static final Primitives PRIMITIVES = new Primitives(true, (byte) 1, 'c', (short) 2, 3, 4L, 5.5f, 6.5);
+	
+	@Test
+	public void testPrimitiveGetters() {
+		assertTrue(RecordUtils.getAccessor(Primitives.class, "z").getBoolean(PRIMITIVES));
+		assertEquals(1, RecordUtils.getAccessor(Primitives.class, "b").getByte(PRIMITIVES));
+		assertEquals('c', RecordUtils.getAccessor(Primitives.class, "c").getChar(PRIMITIVES));
+		assertEquals(2, RecordUtils.getAccessor(Primitives.class, "s").getShort(PRIMITIVES));
+		assertEquals(3, RecordUtils.getAccessor(Primitives.class, "i").getInt(PRIMITIVES));
+		assertEquals(4L, RecordUtils.getAccessor(Primitives.class, "l").getLong(PRIMITIVES));
+		assertEquals(5.5f, RecordUtils.getAccessor(Primitives.class, "f").getFloat(PRIMITIVES), 0f);
+		assertEquals(6.5, RecordUtils.getAccessor(Primitives.class, "d").getDouble(PRIMITIVES), 0.0);
+		assertEquals(3, RecordUtils.getAccessor(Primitives.class, "i").get(PRIMITIVES));
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void testTypeMismatch() {
+		// int component is not widened to long
+		RecordUtils.getAccessor(Primitives.class, "i").getLong(PRIMITIVES);
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void testReferenceTypeMismatch() {
+		RecordUtils.getAccessor(Named.class, "name").getInt(new Named("a", List.of()));
+	}
+	
+	@Test
+	public void testAccessors() {
+		final RecordComponentAccessor[] accessors = RecordUtils.getAccessors(Named.class);
+		assertEquals(2, accessors.length);
+		assertEquals("name", accessors[0].getName());
+		assertSame(List.class, accessors[1].getType());
+		assertEquals("java.util.List<java.lang.String>", accessors[1].getGenericType().getTypeName());
+		assertArrayEquals(new Object[] {"a", List.of("b")}, RecordUtils.getValues(new Named("a", List.of("b"))));
+	}
+	
+	@Test(expected = NoSuchFieldUncheckedException.class)
+	public void testNoSuchComponent() {
+		RecordUtils.getAccessor(Named.class, "missing");
+	}
+	
+	@Test(expected = ReflectiveOperationUncheckedException.class)
+	public void testNotRecord() {
+		RecordUtils.getAccessors(String.class);
+	}
+	
+	@Test
+	public void testCreate() {
+		assertEquals(PRIMITIVES, RecordUtils.createInstance(Primitives.class, true, (byte) 1, 'c', (short) 2, 3, 4L, 5.5f, 6.5));
+		assertEquals(new Named("a", List.of()), RecordUtils.getFactory(Named.class).create("a", List.of()));
+		assertSame(RecordUtils.getFactory(Named.class), RecordUtils.getFactory(Named.class));
+	}
+	
+	@Test
+	public void testVarargsRoundTrip() {
+		final String[] tags = {"x", "y"};
+		final Tags record = RecordUtils.createInstance(Tags.class, "name", tags);
+		assertSame(tags, record.tags());
+		
+		final Object[] values = RecordUtils.getValues(record);
+		assertEquals(record, RecordUtils.createInstance(Tags.class, values));
+		assertTrue(RecordUtils.getFactory(Tags.class).getConstructor().isVarArgs());
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void testArity() {
+		RecordUtils.createInstance(Named.class, "a");
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void testVarargsArity() {
+		// trailing values are not packed to varargs array, component array is passed as is
+		RecordUtils.createInstance(Tags.class, "name", "x", "y");
+	}
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2010-2018 fork3
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software
+ * is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES 
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE 
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR 
+ * IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package f3.commons.reflection;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import f3.commons.reflection.ConcurrencyStressTest.Entity;
+import f3.commons.reflection.ConcurrencyStressTest.Login;
+import f3.commons.reflection.ConcurrencyStressTest.Task;
+
+/**
+ * Throughput of cached utilities from 1 to N threads. Depends on machine load, so it is run by benchmark task only.
+ * @author n3k0nation
+ *
+ */
+@Category(Benchmark.class)
+public class ScalabilityBenchmark {
+	private static final int ITERATIONS = 20000;
+	
+	@Test
+	public void testThroughputScaling() throws Exception {
+		final Task workload = i -> {
+			ClassUtils.createInstance(Entity.class, i, "entity");
+			ClassUtils.transformStringToType("1 2 3", long[].class);
+			FieldUtils.getAnnotatedField(Entity.class, ConcurrencyStressTest.Column.class);
+			MethodUtils.invoke(new ArrayList<>(), "add", i);
+			RecordUtils.getFactory(Login.class).create("user");
+		};
+		ConcurrencyStressTest.runConcurrently(ConcurrencyStressTest.THREADS, ITERATIONS, workload); // warm up
+		
+		double single = 0;
+		double last = 0;
+		final StringBuilder sb = new StringBuilder("Throughput, ops/ms:");
+		for(int threads = 1; threads <= ConcurrencyStressTest.THREADS; threads *= 2) {
+			final long time = ConcurrencyStressTest.runConcurrently(threads, ITERATIONS, workload);
+			last = (double) threads * ITERATIONS * TimeUnit.MILLISECONDS.toNanos(1) / time;
+			if(threads == 1) {
+				single = last;
+			}
+			sb.append(' ').append(threads).append('=').append((long) last);
+		}
+		System.out.println(sb);
+		
+		// cached paths are lock-free, so adding threads must not collapse throughput below single thread
+		assertTrue(sb.toString(), last >= single / 2);
+	}
+}
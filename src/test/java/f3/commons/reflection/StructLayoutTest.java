@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2010-2018 fork3
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software
+ * is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES 
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE 
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR 
+ * IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package f3.commons.reflection;
+
+import static org.junit.Assert.assertEquals;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import f3.commons.reflection.exception.ReflectiveOperationUncheckedException;
+
+/**
+ * @author n3k0nation
+ *
+ */
+public class StructLayoutTest {
+	@Retention(RetentionPolicy.RUNTIME)
+	@interface Column {}
+	
+	static class Parent {
+		@Column int pb;
+		@Column int pa;
+	}
+	
+	static class Child extends Parent {
+		@Column int cb;
+		@Column int ca;
+		@Column long cl;
+		@Column boolean flag;
+		@Column char letter;
+		String ignored;
+	}
+	
+	static class Ordered {
+		@Column @StructLayout.Order(2) int second;
+		@Column @StructLayout.Order(1) byte first;
+	}
+	
+	record Point(@Column int x, @Column int y) {}
+	
+	@Test
+	public void testDefaultOrder() {
+		final StructLayout<Child> layout = StructLayout.of(Child.class, Column.class);
+		assertEquals(Arrays.asList("cl", "pa", "pb", "ca", "cb", "letter", "flag"), names(layout.getFields()));
+		assertEquals(8 + 4 * 4 + 2 + 1, layout.size());
+		assertEquals(8, layout.getOffset("pa"));
+	}
+	
+	@Test
+	public void testExplicitOrder() {
+		final StructLayout<Ordered> layout = StructLayout.of(Ordered.class, Column.class);
+		assertEquals(Arrays.asList("first", "second"), names(layout.getFields()));
+		assertEquals(1, layout.getOffset("second"));
+	}
+	
+	@Test
+	public void testReadWrite() {
+		final StructLayout<Child> layout = StructLayout.of(Child.class, Column.class);
+		final Child child = new Child();
+		child.pa = 1;
+		child.pb = -2;
+		child.ca = 3;
+		child.cb = Integer.MAX_VALUE;
+		child.cl = Long.MIN_VALUE;
+		child.flag = true;
+		child.letter = 'z';
+		
+		final ByteBuffer buffer = ByteBuffer.allocateDirect(64).order(ByteOrder.LITTLE_ENDIAN);
+		layout.write(child, buffer, 8);
+		assertEquals(0, buffer.position());
+		
+		final Child read = layout.read(buffer, 8);
+		assertEquals(child.pa, read.pa);
+		assertEquals(child.pb, read.pb);
+		assertEquals(child.ca, read.ca);
+		assertEquals(child.cb, read.cb);
+		assertEquals(child.cl, read.cl);
+		assertEquals(child.flag, read.flag);
+		assertEquals(child.letter, read.letter);
+	}
+	
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testBounds() {
+		final StructLayout<Child> layout = StructLayout.of(Child.class, Column.class);
+		layout.write(new Child(), ByteBuffer.allocate(layout.size()), 1);
+	}
+	
+	@Test(expected = ReflectiveOperationUncheckedException.class)
+	public void testRecordRejected() {
+		StructLayout.of(Point.class, Column.class);
+	}
+	
+	private static List<String> names(List<Field> fields) {
+		final List<String> names = new ArrayList<>();
+		for(Field field : fields) {
+			names.add(field.getName());
+		}
+		return names;
+	}
+}
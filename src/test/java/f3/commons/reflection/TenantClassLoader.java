@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2010-2018 fork3
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software
+ * is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES 
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE 
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR 
+ * IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package f3.commons.reflection;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Class loader, which defines classes of tenant package itself instead of parent delegation.
+ * @author n3k0nation
+ *
+ */
+class TenantClassLoader extends ClassLoader {
+	static final String TENANT_PACKAGE = "f3.commons.reflection.tenant.";
+	
+	TenantClassLoader() {
+		super(TenantClassLoader.class.getClassLoader());
+	}
+	
+	@Override
+	protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+		if(!name.startsWith(TENANT_PACKAGE)) {
+			return super.loadClass(name, resolve);
+		}
+		
+		synchronized(getClassLoadingLock(name)) {
+			Class<?> clazz = findLoadedClass(name);
+			if(clazz == null) {
+				final byte[] bytes;
+				try(InputStream in = getParent().getResourceAsStream(name.replace('.', '/') + ".class")) {
+					if(in == null) {
+						throw new ClassNotFoundException(name);
+					}
+					bytes = in.readAllBytes();
+				} catch(IOException e) {
+					throw new UncheckedIOException(e);
+				}
+				clazz = defineClass(name, bytes, 0, bytes.length);
+			}
+			
+			if(resolve) {
+				resolveClass(clazz);
+			}
+			return clazz;
+		}
+	}
+}
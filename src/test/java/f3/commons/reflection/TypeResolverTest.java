@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2010-2018 fork3
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software
+ * is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES 
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE 
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR 
+ * IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package f3.commons.reflection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * Resolved types are compared with types of {@link Expected} fields, which are created by JDK.
+ * @author n3k0nation
+ *
+ */
+public class TypeResolverTest {
+	public static class Base<T> {
+		public T value;
+		public T[] array;
+		public List<? extends T> upper;
+		public List<? super T> lower;
+		public Map<String, T> map;
+		
+		public T get() {
+			return value;
+		}
+		
+		public void set(List<T> values) {
+		}
+	}
+	
+	public static class Mid<T> extends Base<List<T>> {
+	}
+	
+	public static class Leaf extends Mid<String> {
+	}
+	
+	public static class IntBase extends Base<Integer> {
+	}
+	
+	public static class Outer<T> {
+		public Inner inner;
+		
+		public class Inner {
+			public T value;
+			public List<T> list;
+		}
+	}
+	
+	public static class IntOuter extends Outer<Integer> {
+	}
+	
+	public static class IntInner extends Outer<Integer>.Inner {
+		public IntInner(Outer<Integer> outer) {
+			outer.super();
+		}
+	}
+	
+	public interface Source<T> {
+		T get();
+	}
+	
+	public interface ListSource<S> extends Source<List<S>> {
+	}
+	
+	public static abstract class IntListSource implements ListSource<Integer> {
+	}
+	
+	static class Expected {
+		List<String> listOfString;
+		List<String>[] arrayOfList;
+		List<? extends List<String>> upper;
+		List<? super List<String>> lower;
+		Map<String, List<String>> map;
+		List<List<String>> listOfList;
+		List<Integer> listOfInteger;
+		Outer<Integer>.Inner innerOfInteger;
+	}
+	
+	@Test
+	public void testMultiLevelRebinding() throws Exception {
+		assertResolved("listOfString", Leaf.class, Base.class.getField("value"));
+		assertResolved("map", Leaf.class, Base.class.getField("map"));
+		assertEquals(List.class, FieldUtils.getResolvedClass(Leaf.class, Base.class.getField("value")));
+		
+		final Method get = Base.class.getMethod("get");
+		assertJdkEquals(expected("listOfString"), MethodUtils.getResolvedReturnType(Leaf.class, get));
+		final Method set = Base.class.getMethod("set", List.class);
+		assertJdkEquals(expected("listOfList"), MethodUtils.getResolvedParameterTypes(Leaf.class, set)[0]);
+	}
+	
+	@Test
+	public void testGenericArray() throws Exception {
+		final Field array = Base.class.getField("array");
+		assertResolved("arrayOfList", Leaf.class, array);
+		assertEquals(List[].class, FieldUtils.getResolvedClass(Leaf.class, array));
+		assertSame(Integer[].class, FieldUtils.getResolvedType(IntBase.class, array));
+	}
+	
+	@Test
+	public void testWildcards() throws Exception {
+		assertResolved("upper", Leaf.class, Base.class.getField("upper"));
+		assertResolved("lower", Leaf.class, Base.class.getField("lower"));
+	}
+	
+	@Test
+	public void testOwnerBindings() throws Exception {
+		assertSame(Integer.class, FieldUtils.getResolvedType(IntInner.class, Outer.Inner.class.getField("value")));
+		assertResolved("listOfInteger", IntInner.class, Outer.Inner.class.getField("list"));
+		assertResolved("innerOfInteger", IntOuter.class, Outer.class.getField("inner"));
+	}
+	
+	@Test
+	public void testInterfaceBindings() throws Exception {
+		final Method get = Source.class.getMethod("get");
+		assertJdkEquals(expected("listOfInteger"), MethodUtils.getResolvedReturnType(IntListSource.class, get));
+	}
+	
+	@Test
+	public void testUnboundKept() throws Exception {
+		final Field value = Base.class.getField("value");
+		assertSame(value.getGenericType(), FieldUtils.getResolvedType(Base.class, value));
+		
+		// List<T> of Mid keeps variable of Mid
+		final Type midValue = FieldUtils.getResolvedType(Mid.class, value);
+		assertJdkEquals(((ParameterizedType) Mid.class.getGenericSuperclass()).getActualTypeArguments()[0], midValue);
+		assertSame(Mid.class.getTypeParameters()[0], ((ParameterizedType) midValue).getActualTypeArguments()[0]);
+	}
+	
+	private static void assertResolved(String expectedField, Class<?> clazz, Field field) throws Exception {
+		assertJdkEquals(expected(expectedField), FieldUtils.getResolvedType(clazz, field));
+	}
+	
+	/** check equality in both directions, hash codes and string form against JDK type */
+	private static void assertJdkEquals(Type jdk, Type resolved) {
+		assertEquals(jdk, resolved);
+		assertEquals(resolved, jdk);
+		assertEquals(jdk.hashCode(), resolved.hashCode());
+		assertEquals(jdk.getTypeName(), resolved.getTypeName());
+	}
+	
+	private static Type expected(String name) throws Exception {
+		return Expected.class.getDeclaredField(name).getGenericType();
+	}
+}